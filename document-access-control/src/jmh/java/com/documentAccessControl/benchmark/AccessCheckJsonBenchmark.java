@@ -0,0 +1,86 @@
+package com.documentAccessControl.benchmark;
+
+import com.documentAccessControl.codec.DeltaVarintCodec;
+import com.documentAccessControl.dto.AccessCheckRequest;
+import com.documentAccessControl.dto.AccessCheckResponse;
+import com.documentAccessControl.entity.Permission;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessCheckJsonBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    private int idCount;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private AccessCheckRequest request;
+    private AccessCheckResponse response;
+    private byte[] requestJson;
+    private byte[] responseJson;
+    private byte[] responseBinary;
+    private long[] sortedIds;
+    private byte[] sortedBinary;
+
+    @Setup
+    public void setUp() throws Exception {
+        long[] ids = BenchmarkDataset.randomDocumentIds(idCount, Integer.MAX_VALUE, 42L);
+        request = new AccessCheckRequest(Permission.READ, ids);
+        response = new AccessCheckResponse(ids);
+        requestJson = objectMapper.writeValueAsBytes(request);
+        responseJson = objectMapper.writeValueAsBytes(response);
+        responseBinary = DeltaVarintCodec.encode(ids);
+        sortedIds = ids.clone();
+        Arrays.sort(sortedIds);
+        sortedBinary = DeltaVarintCodec.encode(sortedIds);
+    }
+
+    @Benchmark
+    public AccessCheckRequest deserializeRequest() throws Exception {
+        return objectMapper.readValue(requestJson, AccessCheckRequest.class);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws Exception {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public AccessCheckResponse deserializeResponse() throws Exception {
+        return objectMapper.readValue(responseJson, AccessCheckResponse.class);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeResponseBinary() {
+        return DeltaVarintCodec.encode(response.getAccessibleIds());
+    }
+
+    @Benchmark
+    public long[] deserializeResponseBinary() {
+        return DeltaVarintCodec.readIds(ByteBuffer.wrap(responseBinary));
+    }
+
+    @Benchmark
+    public byte[] serializeSortedBinary() {
+        return DeltaVarintCodec.encode(sortedIds);
+    }
+
+    @Benchmark
+    public long[] deserializeSortedBinary() {
+        return DeltaVarintCodec.readIds(ByteBuffer.wrap(sortedBinary));
+    }
+}
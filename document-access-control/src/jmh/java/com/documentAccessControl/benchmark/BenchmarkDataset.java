@@ -0,0 +1,148 @@
+package com.documentAccessControl.benchmark;
+
+import com.documentAccessControl.DocumentAccessControlApplication;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.service.DocumentAclIndex;
+import com.documentAccessControl.service.UserDictionary;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Boots the application against a private in-memory H2 database and fills it with a synthetic dataset:
+ * users user0..user999 plus admin, and documents 1..documentCount owned by admin or one of the users,
+ * each granted to grantsPerDocument users.
+ */
+public final class BenchmarkDataset {
+    public static final String BENCHMARK_USER = "user1";
+
+    private static final int USER_COUNT = 1000;
+    private static final int ADMIN_ID = USER_COUNT + 1;
+    private static final int BATCH_SIZE = 5000;
+    private static final int SEQUENCE_HEADROOM = 1000;
+    private static final String INSERT_OWNER_ENTRIES =
+            "INSERT INTO document_effective_permission (document_id, permission, user_id) SELECT id, ?, owner_id FROM documents";
+    private static final String INSERT_GRANT_ENTRIES =
+            "INSERT INTO document_effective_permission (document_id, permission, user_id) " +
+            "SELECT p.document_id, ?, p.user_id FROM document_permission p JOIN documents d ON d.id = p.document_id " +
+            "WHERE BITAND(p.permission_mask, CAST(? AS INT)) <> 0 AND p.user_id <> d.owner_id";
+    private static final Permission[] PERMISSIONS = Permission.values();
+
+    private BenchmarkDataset() {
+    }
+
+    public static ConfigurableApplicationContext start(boolean aclIndexEnabled, String... extraArgs) {
+        return start(WebApplicationType.NONE, aclIndexEnabled, extraArgs);
+    }
+
+    /**
+     * Same as {@link #start} but with the embedded web server listening on a random port.
+     */
+    public static ConfigurableApplicationContext startServer(String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0"));
+        args.addAll(List.of(extraArgs));
+        return start(WebApplicationType.SERVLET, false, args.toArray(new String[0]));
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType webApplicationType, boolean aclIndexEnabled,
+                                                        String... extraArgs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.sql.init.mode=never",
+                "--logging.level.root=WARN",
+                "--document.acl-index.enabled=" + aclIndexEnabled));
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(DocumentAccessControlApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(new String[0]));
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int documentCount, int grantsPerDocument) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> users = new ArrayList<>(USER_COUNT + 1);
+        for (int i = 0; i < USER_COUNT; i++) {
+            users.add(new Object[]{userId(i), "user" + i});
+        }
+        users.add(new Object[]{ADMIN_ID, "admin"});
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username) VALUES (?, ?)", users);
+        jdbcTemplate.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (ADMIN_ID + 1));
+
+        List<Object[]> documents = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= documentCount; i++) {
+            int owner = i % 10 == 0 ? userId(i % USER_COUNT) : ADMIN_ID;
+            documents.add(new Object[]{i, "Document " + i, "txt", owner, now});
+            if (documents.size() == BATCH_SIZE || i == documentCount) {
+                jdbcTemplate.batchUpdate("INSERT INTO documents (id, name, file_type, owner_id, created_at) VALUES (?, ?, ?, ?, ?)", documents);
+                documents.clear();
+            }
+        }
+
+        List<Object[]> permissions = new ArrayList<>(BATCH_SIZE);
+        long permissionId = 0;
+        for (long documentId = 1; documentId <= documentCount; documentId++) {
+            for (int g = 0; g < grantsPerDocument; g++) {
+                int user = (int) ((documentId * 31 + g) % USER_COUNT);
+                permissions.add(new Object[]{++permissionId, documentId, userId(user), PERMISSIONS[g % PERMISSIONS.length].getMask()});
+                if (permissions.size() == BATCH_SIZE) {
+                    insertPermissions(jdbcTemplate, permissions);
+                }
+            }
+        }
+        insertPermissions(jdbcTemplate, permissions);
+
+        for (Permission permission : PERMISSIONS) {
+            jdbcTemplate.update(INSERT_OWNER_ENTRIES, permission.name());
+            jdbcTemplate.update(INSERT_GRANT_ENTRIES, permission.name(), permission.getMask());
+        }
+
+        restartSequence(jdbcTemplate, "document_seq", documentCount);
+        restartSequence(jdbcTemplate, "document_permission_seq", permissionId);
+        context.getBean(DocumentAclIndex.class).load();
+    }
+
+    public static CurrentUser user(ConfigurableApplicationContext context, String username) {
+        return context.getBean(UserDictionary.class).resolve(username);
+    }
+
+    public static long[] randomDocumentIds(int count, int documentCount, long seed) {
+        Random random = new Random(seed);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = 1L + random.nextInt(documentCount);
+        }
+        return ids;
+    }
+
+    private static int userId(int user) {
+        return user + 1;
+    }
+
+    private static void restartSequence(JdbcTemplate jdbcTemplate, String sequence, long lastId) {
+        // leave room for the pooled optimizer, which hands out the block below the value it reads
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (lastId + SEQUENCE_HEADROOM));
+    }
+
+    private static void insertPermissions(JdbcTemplate jdbcTemplate, List<Object[]> permissions) {
+        if (!permissions.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO document_permission (id, document_id, user_id, permission_mask) VALUES (?, ?, ?, ?)", permissions);
+            permissions.clear();
+        }
+    }
+}
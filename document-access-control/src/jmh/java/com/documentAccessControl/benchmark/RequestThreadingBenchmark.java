@@ -0,0 +1,71 @@
+package com.documentAccessControl.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-per-request versus the virtual-threads profile, measured over HTTP with twice as many
+ * concurrent clients as Tomcat has platform threads. Both modes get the same connection pool, so the
+ * difference is the request executor alone. Throughput mode gives requests/s, sample mode the p99 in its
+ * percentile table. Against in-memory H2 queries never block, so the gap understates MySQL round trips.
+ * <p>
+ * Only thread-per-request runs by default; on Java 21+ add {@code -p virtualThreads=false,true} to compare
+ * both on the same machine. Thread-per-request baseline, Java 17, 1 vCPU Xeon, 5 GB, H2:
+ * 0.42 &plusmn; 0.40 ops/ms (about 420 requests/s), p50 828 ms, p99 2399 ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(400)
+@Fork(1)
+public class RequestThreadingBenchmark {
+
+    @Param({"false"})
+    private boolean virtualThreads;
+
+    @Param({"100000"})
+    private int documentCount;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.startServer(
+                "--spring.profiles.active=" + (virtualThreads ? "virtual-threads" : "default"),
+                "--spring.datasource.hikari.maximum-pool-size=20");
+        BenchmarkDataset.seed(context, documentCount, 5);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/documents/";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private final Random random = new Random();
+    }
+
+    @Benchmark
+    public int getDocument(Client client) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + (1 + client.random.nextInt(documentCount))))
+                .header("X-User", "admin")
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,72 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.benchmark.BenchmarkDataset;
+import com.documentAccessControl.dto.AccessCheckRequest;
+import com.documentAccessControl.dto.AccessCheckResponse;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.Permission;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many concurrent small access checks for one user, with and without the micro-batching dispatcher.
+ * Compare throughput and the sample-mode percentiles: batching should raise the former at the cost
+ * of up to one window on the latter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class BatchedCheckAccessBenchmark {
+
+    @Param({"100000"})
+    private int documentCount;
+
+    @Param({"5"})
+    private int idsPerRequest;
+
+    @Param({"false", "true"})
+    private boolean batching;
+
+    @Param({"1ms"})
+    private String window;
+
+    private ConfigurableApplicationContext context;
+    private DocumentService documentService;
+    private CurrentUser user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start(false,
+                "--document.access-check.batching.enabled=" + batching,
+                "--document.access-check.batching.window=" + window,
+                "--spring.datasource.hikari.maximum-pool-size=10");
+        BenchmarkDataset.seed(context, documentCount, 3);
+        documentService = context.getBean(DocumentService.class);
+        user = BenchmarkDataset.user(context, BenchmarkDataset.BENCHMARK_USER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private long seed;
+
+        AccessCheckRequest next(int idsPerRequest, int documentCount) {
+            return new AccessCheckRequest(Permission.READ, BenchmarkDataset.randomDocumentIds(idsPerRequest, documentCount, seed++));
+        }
+    }
+
+    @Benchmark
+    public AccessCheckResponse checkAccess(Client client) {
+        return documentService.checkAccess(user, client.next(idsPerRequest, documentCount));
+    }
+}
@@ -0,0 +1,64 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.benchmark.BenchmarkDataset;
+import com.documentAccessControl.dto.AccessCheckRequest;
+import com.documentAccessControl.dto.AccessCheckResponse;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.Permission;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckAccessBenchmark {
+
+    @Param({"100000"})
+    private int documentCount;
+
+    @Param({"3"})
+    private int grantsPerDocument;
+
+    @Param({"10", "1000", "10000"})
+    private int idsPerRequest;
+
+    @Param({"false", "true"})
+    private boolean aclIndex;
+
+    private ConfigurableApplicationContext context;
+    private DocumentService documentService;
+    private CurrentUser user;
+    private CurrentUser admin;
+    private AccessCheckRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start(aclIndex);
+        BenchmarkDataset.seed(context, documentCount, grantsPerDocument);
+        documentService = context.getBean(DocumentService.class);
+        user = BenchmarkDataset.user(context, BenchmarkDataset.BENCHMARK_USER);
+        admin = BenchmarkDataset.user(context, "admin");
+        request = new AccessCheckRequest(Permission.READ,
+                BenchmarkDataset.randomDocumentIds(idsPerRequest, documentCount, 42L));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AccessCheckResponse checkAccessRegularUser() {
+        return documentService.checkAccess(user, request);
+    }
+
+    @Benchmark
+    public AccessCheckResponse checkAccessAdmin() {
+        return documentService.checkAccess(admin, request);
+    }
+}
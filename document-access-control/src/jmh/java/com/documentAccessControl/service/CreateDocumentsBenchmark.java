@@ -0,0 +1,70 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.benchmark.BenchmarkDataset;
+import com.documentAccessControl.dto.BulkCreateDocumentRequest;
+import com.documentAccessControl.dto.CreateDocumentRequest;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.dto.DocumentDto;
+import com.documentAccessControl.dto.UserPermissionDto;
+import com.documentAccessControl.entity.Permission;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin ingestion throughput, reported per document. Target: at least 5,000 documents/s
+ * (two grants and a short body each) for 1,000-document requests against MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateDocumentsBenchmark {
+    private static final int DOCUMENTS_PER_REQUEST = 1000;
+
+    @Param({"2"})
+    private int grantsPerDocument;
+
+    private ConfigurableApplicationContext context;
+    private DocumentService documentService;
+    private CurrentUser admin;
+    private BulkCreateDocumentRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkDataset.start(false);
+        documentService = context.getBean(DocumentService.class);
+        admin = BenchmarkDataset.user(context, "admin");
+
+        List<CreateDocumentRequest> documents = new ArrayList<>(DOCUMENTS_PER_REQUEST);
+        for (int i = 0; i < DOCUMENTS_PER_REQUEST; i++) {
+            List<UserPermissionDto> grants = new ArrayList<>(grantsPerDocument);
+            for (int g = 0; g < grantsPerDocument; g++) {
+                grants.add(new UserPermissionDto("user" + g, Permission.READ));
+            }
+            CreateDocumentRequest document = new CreateDocumentRequest();
+            document.setName("Document " + i);
+            document.setFileType("txt");
+            document.setContent("Body of document " + i);
+            document.setAccessibleUsers(grants);
+            documents.add(document);
+        }
+        request = new BulkCreateDocumentRequest(documents);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DOCUMENTS_PER_REQUEST)
+    public List<DocumentDto> createDocuments() {
+        return documentService.createDocuments(admin, request);
+    }
+}
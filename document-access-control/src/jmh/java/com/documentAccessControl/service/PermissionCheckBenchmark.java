@@ -0,0 +1,62 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.dto.DocumentDto;
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentPermission;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.metrics.DocumentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+    private static final int ADMIN_ID = 0;
+
+    @Param({"10", "1000", "100000"})
+    private int permissionCount;
+
+    private DocumentService documentService;
+    private Document document;
+    private CurrentUser lastGrantee;
+    private CurrentUser nobody;
+
+    @Setup
+    public void setUp() {
+        UserDictionary userDictionary = new UserDictionary(null, null, 100);
+        userDictionary.remember(ADMIN_ID, "admin");
+        documentService = new DocumentService(null, null, null, null, null, null, null, null, null, null, userDictionary, null, null, null, null,
+                new DocumentMetrics(new SimpleMeterRegistry()));
+        document = new Document("Benchmark", "txt", ADMIN_ID);
+        document.setId(1L);
+        Permission[] permissions = Permission.values();
+        for (int i = 0; i < permissionCount; i++) {
+            userDictionary.remember(i + 1, "user" + i);
+            document.addPermission(new DocumentPermission(i + 1, permissions[i % permissions.length]));
+        }
+        lastGrantee = new CurrentUser(permissionCount, "user" + (permissionCount - 1));
+        nobody = new CurrentUser(-1, "nobody");
+    }
+
+    @Benchmark
+    public boolean hasPermissionLastGrantee() {
+        return documentService.hasPermission(lastGrantee, document, Permission.values()[(permissionCount - 1) % 3]);
+    }
+
+    @Benchmark
+    public boolean hasPermissionDenied() {
+        return documentService.hasPermission(nobody, document, Permission.READ);
+    }
+
+    @Benchmark
+    public DocumentDto documentBeanToDto() {
+        return documentService.documentBeanToDto(document);
+    }
+}
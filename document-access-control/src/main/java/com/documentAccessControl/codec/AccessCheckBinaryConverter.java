@@ -0,0 +1,74 @@
+package com.documentAccessControl.codec;
+
+import com.documentAccessControl.dto.AccessCheckRequest;
+import com.documentAccessControl.dto.AccessCheckResponse;
+import com.documentAccessControl.entity.Permission;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * application/octet-stream encoding of access-check traffic, negotiated next to JSON.
+ * Request: one byte permission mask, then the ids as {@link DeltaVarintCodec}. Response: the accessible ids alone.
+ */
+public class AccessCheckBinaryConverter extends AbstractHttpMessageConverter<Object> {
+
+    public AccessCheckBinaryConverter() {
+        super(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == AccessCheckRequest.class || clazz == AccessCheckResponse.class;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(inputMessage.getBody().readAllBytes());
+        try {
+            if (clazz == AccessCheckResponse.class) {
+                return new AccessCheckResponse(DeltaVarintCodec.readIds(buffer));
+            }
+            if (!buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Missing permission");
+            }
+            Permission permission = permissionOf(buffer.get());
+            return new AccessCheckRequest(permission, DeltaVarintCodec.readIds(buffer));
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Malformed access-check body: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        DeltaVarintCodec.Writer writer;
+        if (value instanceof AccessCheckResponse response) {
+            writer = new DeltaVarintCodec.Writer(response.getAccessibleIds().length * 2);
+            DeltaVarintCodec.writeIds(writer, response.getAccessibleIds());
+        } else if (value instanceof AccessCheckRequest request) {
+            writer = new DeltaVarintCodec.Writer(request.getDocumentIds().length * 2 + 1);
+            writer.writeByte(request.getPermission().getMask());
+            DeltaVarintCodec.writeIds(writer, request.getDocumentIds());
+        } else {
+            throw new HttpMessageNotWritableException("Unsupported type " + value.getClass());
+        }
+        byte[] bytes = writer.toByteArray();
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+
+    private Permission permissionOf(int mask) {
+        for (Permission permission : Permission.values()) {
+            if (permission.getMask() == mask) {
+                return permission;
+            }
+        }
+        throw new IllegalArgumentException("Unknown permission mask " + mask);
+    }
+}
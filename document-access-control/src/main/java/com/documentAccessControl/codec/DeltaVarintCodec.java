@@ -0,0 +1,98 @@
+package com.documentAccessControl.codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Packs a list of ids as an unsigned varint count followed by the zigzag varint delta of each id from the one
+ * before it. Sorted ids cost one or two bytes each instead of up to twenty characters of JSON; unsorted ids still
+ * round-trip, just less compactly.
+ */
+public final class DeltaVarintCodec {
+    private static final int MAX_VARINT_BYTES = 10;
+
+    private DeltaVarintCodec() {
+    }
+
+    public static byte[] encode(long[] ids) {
+        Writer writer = new Writer(ids.length + MAX_VARINT_BYTES);
+        writeIds(writer, ids);
+        return writer.toByteArray();
+    }
+
+    public static void writeIds(Writer writer, long[] ids) {
+        writer.writeUnsigned(ids.length);
+        long previous = 0;
+        for (long id : ids) {
+            long delta = id - previous;
+            writer.writeUnsigned((delta << 1) ^ (delta >> 63));
+            previous = id;
+        }
+    }
+
+    public static long[] readIds(ByteBuffer buffer) {
+        long count = readUnsigned(buffer);
+        // every id takes at least one byte, which bounds the allocation by the body size
+        if (count > buffer.remaining()) {
+            throw new IllegalArgumentException("Id count " + count + " exceeds the encoded data");
+        }
+        long[] ids = new long[(int) count];
+        long previous = 0;
+        for (int i = 0; i < ids.length; i++) {
+            long zigzag = readUnsigned(buffer);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    public static long readUnsigned(ByteBuffer buffer) {
+        long value = 0;
+        try {
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated varint");
+        }
+        throw new IllegalArgumentException("Varint longer than 64 bits");
+    }
+
+    public static final class Writer {
+        private byte[] bytes;
+        private int length;
+
+        public Writer(int capacity) {
+            this.bytes = new byte[Math.max(capacity, MAX_VARINT_BYTES)];
+        }
+
+        public void writeByte(int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+        }
+
+        public void writeUnsigned(long value) {
+            ensureCapacity(MAX_VARINT_BYTES);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.documentAccessControl.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a JSON array of ids straight into a {@code long[]}. Unlike Jackson's default primitive array handling it
+ * rejects nulls, strings and fractions instead of coercing them to an id.
+ */
+public class LongArrayDeserializer extends StdDeserializer<long[]> {
+    private static final int FIRST_CHUNK_SIZE = 16;
+    private static final int MAX_CHUNK_SIZE = 16 * 1024;
+
+    public LongArrayDeserializer() {
+        super(long[].class);
+    }
+
+    @Override
+    public long[] deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartArrayToken()) {
+            return (long[]) context.handleUnexpectedToken(long[].class, parser);
+        }
+        // filled chunks are kept rather than grown and copied, so the only other array is the exact-size result
+        List<long[]> filled = new ArrayList<>();
+        long[] chunk = new long[FIRST_CHUNK_SIZE];
+        int inChunk = 0;
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.VALUE_NUMBER_INT) {
+                return (long[]) context.handleUnexpectedToken(long[].class, token, parser, "Expected an integer id but found %s", token);
+            }
+            if (inChunk == chunk.length) {
+                filled.add(chunk);
+                chunk = new long[Math.min(chunk.length * 2, MAX_CHUNK_SIZE)];
+                inChunk = 0;
+            }
+            chunk[inChunk++] = parser.getLongValue();
+            count++;
+        }
+        if (filled.isEmpty() && inChunk == chunk.length) {
+            return chunk;
+        }
+
+        long[] ids = new long[count];
+        int offset = 0;
+        for (long[] full : filled) {
+            System.arraycopy(full, 0, ids, offset, full.length);
+            offset += full.length;
+        }
+        System.arraycopy(chunk, 0, ids, offset, inChunk);
+        return ids;
+    }
+}
@@ -0,0 +1,25 @@
+package com.documentAccessControl.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Gates the virtual-threads profile on a Java 21+ runtime. Spring Boot silently ignores
+ * spring.threads.virtual.enabled on older runtimes, which would leave the profile running thread-per-request.
+ */
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfig {
+    static final int MINIMUM_FEATURE_VERSION = 21;
+
+    public VirtualThreadsConfig() {
+        requireVirtualThreads(Runtime.version().feature());
+    }
+
+    static void requireVirtualThreads(int featureVersion) {
+        if (featureVersion < MINIMUM_FEATURE_VERSION) {
+            throw new IllegalStateException("The virtual-threads profile needs Java " + MINIMUM_FEATURE_VERSION
+                    + " or later, but this runtime is Java " + featureVersion);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.documentAccessControl.config;
+
+import com.documentAccessControl.codec.AccessCheckBinaryConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // appended after Jackson so JSON stays the default when a client accepts anything
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new AccessCheckBinaryConverter());
+    }
+}
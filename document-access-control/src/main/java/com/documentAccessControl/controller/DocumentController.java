@@ -1,72 +1,250 @@
 package com.documentAccessControl.controller;
 
 import com.documentAccessControl.dto.*;
+import com.documentAccessControl.service.AccessCheckCoalescer;
+import com.documentAccessControl.service.AclChangeLog;
 import com.documentAccessControl.service.DocumentService;
+import com.documentAccessControl.service.UserDictionary;
+import com.documentAccessControl.storage.StoredContent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
 @RequestMapping("/documents")
 public class DocumentController {
     private static final String X_USER_HEADER = "X-User";
+    private static final String ACL_VERSION_HEADER = "X-Acl-Version";
 
     private final DocumentService documentService;
+    private final AccessCheckCoalescer accessCheckCoalescer;
+    private final UserDictionary userDictionary;
+    private final AclChangeLog aclChangeLog;
+    private final ObjectWriter documentWriter;
+    private final ObjectWriter aclChangeWriter;
+    private final Duration exportTimeout;
 
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, AccessCheckCoalescer accessCheckCoalescer,
+                              UserDictionary userDictionary, AclChangeLog aclChangeLog, ObjectMapper objectMapper,
+                              @Value("${document.export.timeout:30m}") Duration exportTimeout) {
         this.documentService = documentService;
+        this.accessCheckCoalescer = accessCheckCoalescer;
+        this.userDictionary = userDictionary;
+        this.aclChangeLog = aclChangeLog;
+        this.documentWriter = objectMapper.writerFor(DocumentDto.class);
+        this.aclChangeWriter = objectMapper.writerFor(AclChangeDto.class);
+        this.exportTimeout = exportTimeout;
     }
 
     @PostMapping
     public ResponseEntity<DocumentDto> createDocument(@RequestHeader(X_USER_HEADER) String username, @Valid @RequestBody CreateDocumentRequest request){
-        validateUser(username);
-        DocumentDto documentDto = documentService.createDocument(username, request);
+        CurrentUser user = resolveUser(username);
+        DocumentDto documentDto = documentService.createDocument(user, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(documentDto);
     }
 
     @GetMapping
-    public ResponseEntity<List<DocumentDto>> getListOfAccessibleDocuments(@RequestHeader(X_USER_HEADER) String username){
-        validateUser(username);
-        List<DocumentDto> documentDtos = documentService.getListOfAccessibleDocuments(username);
-        return ResponseEntity.ok(documentDtos);
+    public ResponseEntity<List<DocumentDto>> getListOfAccessibleDocuments(@RequestHeader(X_USER_HEADER) String username,
+                                                                          WebRequest webRequest){
+        CurrentUser user = resolveUser(username);
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(documentService.getListFingerprint(user).toEtag())){
+            return null;
+        }
+        List<DocumentDto> documentDtos = documentService.getListOfAccessibleDocuments(user);
+        return ResponseEntity.ok().eTag(ListFingerprint.of(documentDtos).toEtag()).body(documentDtos);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<DocumentPageDto> getPageOfAccessibleDocuments(@RequestHeader(X_USER_HEADER) String username,
+                                                                        @RequestParam(required = false) Long after,
+                                                                        @RequestParam int limit,
+                                                                        @RequestParam(defaultValue = "false") boolean includeContent,
+                                                                        @RequestParam(defaultValue = "false") boolean includePermissions){
+        CurrentUser user = resolveUser(username);
+        DocumentPageDto page = documentService.getPageOfAccessibleDocuments(user, after, limit, includeContent, includePermissions);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAccessibleDocuments(@RequestHeader(X_USER_HEADER) String username,
+                                                                           WebRequest webRequest){
+        CurrentUser user = resolveUser(username);
+        // a full export outlives the default async timeout; only this request gets the longer one
+        WebAsyncUtils.getAsyncManager(webRequest).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        // read before the snapshot: replaying the feed from here may repeat changes but never misses one
+        long aclVersion = aclChangeLog.currentVersion();
+        StreamingResponseBody body = outputStream -> {
+            boolean[] flushed = {false};
+            try {
+                documentService.exportAccessibleDocuments(user, documentDto -> {
+                    try {
+                        outputStream.write(documentWriter.writeValueAsBytes(documentDto));
+                        outputStream.write('\n');
+                        if (!flushed[0]) {
+                            outputStream.flush();
+                            flushed[0] = true;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .header(ACL_VERSION_HEADER, Long.toString(aclVersion))
+                .body(body);
+    }
+
+    @GetMapping(value = "/acl-changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAclChanges(@RequestHeader(X_USER_HEADER) String username,
+                                                               @RequestParam long since,
+                                                               @RequestParam(defaultValue = "1000") int limit){
+        CurrentUser user = resolveUser(username);
+        List<AclChangeDto> changes = aclChangeLog.changesSince(user, since, limit);
+        long version = changes.isEmpty() ? since : changes.get(changes.size() - 1).getVersion();
+        StreamingResponseBody body = outputStream -> {
+            for (AclChangeDto change : changes) {
+                outputStream.write(aclChangeWriter.writeValueAsBytes(change));
+                outputStream.write('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .header(ACL_VERSION_HEADER, Long.toString(version))
+                .body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<SearchHitDto>> searchDocuments(@RequestHeader(X_USER_HEADER) String username,
+                                                              @RequestParam String q,
+                                                              @RequestParam(defaultValue = "20") int limit){
+        CurrentUser user = resolveUser(username);
+        return ResponseEntity.ok(documentService.searchDocuments(user, q, limit));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<DocumentDto> getDocumentById(@RequestHeader(X_USER_HEADER) String username, @PathVariable Long id){
-        validateUser(username);
-        DocumentDto documentDto = documentService.getDocumentById(username, id);
-        return ResponseEntity.ok(documentDto);
+    public ResponseEntity<DocumentDto> getDocumentById(@RequestHeader(X_USER_HEADER) String username, @PathVariable Long id,
+                                                       WebRequest webRequest){
+        CurrentUser user = resolveUser(username);
+        if(webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(documentEtag(documentService.getDocumentRevision(user, id)))){
+            return null;
+        }
+        DocumentDto documentDto = documentService.getDocumentById(user, id);
+        return ResponseEntity.ok().eTag(documentEtag(documentDto.getRevision())).body(documentDto);
+    }
+
+    @GetMapping("/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getDocumentContent(@RequestHeader(X_USER_HEADER) String username, @PathVariable Long id,
+                                                                    @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader){
+        CurrentUser user = resolveUser(username);
+        StoredContent content = documentService.openDocumentContent(user, id);
+        long length = content.length();
+        long start = 0;
+        long count = length;
+        HttpStatus status = HttpStatus.OK;
+
+        if(rangeHeader != null){
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                if(ranges.size() == 1){
+                    start = ranges.get(0).getRangeStart(length);
+                    long end = ranges.get(0).getRangeEnd(length);
+                    if(start >= length || end < start){
+                        return rangeNotSatisfiable(length);
+                    }
+                    count = end - start + 1;
+                    status = HttpStatus.PARTIAL_CONTENT;
+                }
+            } catch (IllegalArgumentException e) {
+                return rangeNotSatisfiable(length);
+            }
+        }
+
+        long position = start;
+        long size = count;
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status)
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .contentLength(size)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if(status == HttpStatus.PARTIAL_CONTENT){
+            response.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + count - 1) + "/" + length);
+        }
+        return response.body(outputStream -> content.transferTo(position, size, Channels.newChannel(outputStream)));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDocuemnt(@RequestHeader(X_USER_HEADER) String username, @PathVariable Long id){
-        validateUser(username);
-        documentService.deleteDocument(username, id);
+        CurrentUser user = resolveUser(username);
+        documentService.deleteDocument(user, id);
         return ResponseEntity.noContent().build();
     }
 
     @PostMapping("/{id}/grant")
     public ResponseEntity<DocumentDto> grantPermission(@RequestHeader(X_USER_HEADER) String username, @PathVariable Long id,
                                                         @Valid @RequestBody GrantPermissionRequest request){
-        validateUser(username);
-        DocumentDto documentDto = documentService.grantPermission(username, id, request);
-        return ResponseEntity.ok(documentDto);
+        CurrentUser user = resolveUser(username);
+        DocumentDto documentDto = documentService.grantPermission(user, id, request);
+        return ResponseEntity.ok().eTag(documentEtag(documentDto.getRevision())).body(documentDto);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<DocumentDto>> createDocuments(@RequestHeader(X_USER_HEADER) String username,
+                                                             @Valid @RequestBody BulkCreateDocumentRequest request){
+        CurrentUser user = resolveUser(username);
+        List<DocumentDto> documentDtos = documentService.createDocuments(user, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(documentDtos);
+    }
+
+    @PostMapping("/grants")
+    public ResponseEntity<BulkGrantResponse> bulkGrantPermissions(@RequestHeader(X_USER_HEADER) String username,
+                                                                  @Valid @RequestBody BulkGrantRequest request){
+        CurrentUser user = resolveUser(username);
+        BulkGrantResponse response = documentService.bulkGrantPermissions(user, request);
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/access-check")
     public ResponseEntity<AccessCheckResponse> checkAccess(@RequestHeader(X_USER_HEADER) String username, @Valid @RequestBody AccessCheckRequest request){
-        validateUser(username);
-        AccessCheckResponse response = documentService.checkAccess(username, request);
+        CurrentUser user = resolveUser(username);
+        AccessCheckResponse response = accessCheckCoalescer.checkAccess(user, request);
         return ResponseEntity.ok(response);
     }
 
-    private void validateUser(String username){
+    private String documentEtag(long revision){
+        return "\"" + revision + "\"";
+    }
+
+    private ResponseEntity<StreamingResponseBody> rangeNotSatisfiable(long length){
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                .build();
+    }
+
+    private CurrentUser resolveUser(String username){
         if(username == null || username.trim().isEmpty()){
             throw new IllegalArgumentException("X-User header is required");
         }
+        return userDictionary.resolve(username);
     }
 
 }
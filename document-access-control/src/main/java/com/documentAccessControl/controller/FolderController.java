@@ -0,0 +1,56 @@
+package com.documentAccessControl.controller;
+
+import com.documentAccessControl.dto.CreateFolderRequest;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.dto.FolderDto;
+import com.documentAccessControl.dto.GrantPermissionRequest;
+import com.documentAccessControl.dto.MoveFolderRequest;
+import com.documentAccessControl.service.FolderService;
+import com.documentAccessControl.service.UserDictionary;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/folders")
+public class FolderController {
+    private static final String X_USER_HEADER = "X-User";
+
+    private final FolderService folderService;
+    private final UserDictionary userDictionary;
+
+    public FolderController(FolderService folderService, UserDictionary userDictionary) {
+        this.folderService = folderService;
+        this.userDictionary = userDictionary;
+    }
+
+    @PostMapping
+    public ResponseEntity<FolderDto> createFolder(@RequestHeader(X_USER_HEADER) String username, @Valid @RequestBody CreateFolderRequest request){
+        CurrentUser user = resolveUser(username);
+        FolderDto folderDto = folderService.createFolder(user, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(folderDto);
+    }
+
+    @PutMapping("/{id}/parent")
+    public ResponseEntity<FolderDto> moveFolder(@RequestHeader(X_USER_HEADER) String username, @PathVariable Long id,
+                                                @RequestBody MoveFolderRequest request){
+        CurrentUser user = resolveUser(username);
+        return ResponseEntity.ok(folderService.moveFolder(user, id, request.getParentId()));
+    }
+
+    @PostMapping("/{id}/grant")
+    public ResponseEntity<Void> grantPermission(@RequestHeader(X_USER_HEADER) String username, @PathVariable Long id,
+                                                @Valid @RequestBody GrantPermissionRequest request){
+        CurrentUser user = resolveUser(username);
+        folderService.grantPermission(user, id, request);
+        return ResponseEntity.noContent().build();
+    }
+
+    private CurrentUser resolveUser(String username){
+        if(username == null || username.trim().isEmpty()){
+            throw new IllegalArgumentException("X-User header is required");
+        }
+        return userDictionary.resolve(username);
+    }
+}
@@ -0,0 +1,61 @@
+package com.documentAccessControl.controller;
+
+import com.documentAccessControl.dto.CreateGroupRequest;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.dto.GroupDto;
+import com.documentAccessControl.service.GroupService;
+import com.documentAccessControl.service.UserDictionary;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/groups")
+public class GroupController {
+    private static final String X_USER_HEADER = "X-User";
+
+    private final GroupService groupService;
+    private final UserDictionary userDictionary;
+
+    public GroupController(GroupService groupService, UserDictionary userDictionary) {
+        this.groupService = groupService;
+        this.userDictionary = userDictionary;
+    }
+
+    @PostMapping
+    public ResponseEntity<GroupDto> createGroup(@RequestHeader(X_USER_HEADER) String username, @Valid @RequestBody CreateGroupRequest request){
+        CurrentUser user = resolveUser(username);
+        GroupDto groupDto = groupService.createGroup(user, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(groupDto);
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<GroupDto> getGroup(@RequestHeader(X_USER_HEADER) String username, @PathVariable String name){
+        CurrentUser user = resolveUser(username);
+        return ResponseEntity.ok(groupService.getGroup(user, name));
+    }
+
+    @PutMapping("/{name}/members/{member}")
+    public ResponseEntity<Void> addMember(@RequestHeader(X_USER_HEADER) String username, @PathVariable String name,
+                                          @PathVariable String member){
+        CurrentUser user = resolveUser(username);
+        groupService.addMember(user, name, member);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{name}/members/{member}")
+    public ResponseEntity<Void> removeMember(@RequestHeader(X_USER_HEADER) String username, @PathVariable String name,
+                                             @PathVariable String member){
+        CurrentUser user = resolveUser(username);
+        groupService.removeMember(user, name, member);
+        return ResponseEntity.noContent().build();
+    }
+
+    private CurrentUser resolveUser(String username){
+        if(username == null || username.trim().isEmpty()){
+            throw new IllegalArgumentException("X-User header is required");
+        }
+        return userDictionary.resolve(username);
+    }
+}
@@ -1,21 +1,22 @@
 package com.documentAccessControl.dto;
 
+import com.documentAccessControl.codec.LongArrayDeserializer;
 import com.documentAccessControl.entity.Permission;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.NotNull;
 
-import java.util.List;
-
 public class AccessCheckRequest {
     @NotNull(message = "Permission is required")
     private Permission permission;
 
     @NotNull(message = "Document IDs are required")
-    private List<Long> documentIds;
+    @JsonDeserialize(using = LongArrayDeserializer.class)
+    private long[] documentIds;
 
     public AccessCheckRequest() {
     }
 
-    public AccessCheckRequest(Permission permission, List<Long> documentIds) {
+    public AccessCheckRequest(Permission permission, long[] documentIds) {
         this.permission = permission;
         this.documentIds = documentIds;
     }
@@ -28,11 +29,11 @@ public class AccessCheckRequest {
         this.permission = permission;
     }
 
-    public List<Long> getDocumentIds() {
+    public long[] getDocumentIds() {
         return documentIds;
     }
 
-    public void setDocumentIds(List<Long> documentIds) {
+    public void setDocumentIds(long[] documentIds) {
         this.documentIds = documentIds;
     }
 }
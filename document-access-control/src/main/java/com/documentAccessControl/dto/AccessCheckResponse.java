@@ -1,22 +1,20 @@
 package com.documentAccessControl.dto;
 
-import java.util.List;
-
 public class AccessCheckResponse {
-    private List<Long> accessibleIds;
+    private long[] accessibleIds;
 
     public AccessCheckResponse() {
     }
 
-    public AccessCheckResponse(List<Long> accessibleIds) {
+    public AccessCheckResponse(long[] accessibleIds) {
         this.accessibleIds = accessibleIds;
     }
 
-    public List<Long> getAccessibleIds() {
+    public long[] getAccessibleIds() {
         return accessibleIds;
     }
 
-    public void setAccessibleIds(List<Long> accessibleIds) {
+    public void setAccessibleIds(long[] accessibleIds) {
         this.accessibleIds = accessibleIds;
     }
 }
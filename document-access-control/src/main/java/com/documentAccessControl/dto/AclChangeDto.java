@@ -0,0 +1,63 @@
+package com.documentAccessControl.dto;
+
+import com.documentAccessControl.entity.AclChangeType;
+import com.documentAccessControl.entity.Permission;
+
+public class AclChangeDto {
+    private long version;
+    private Long documentId;
+    private AclChangeType type;
+    private String username;
+    private Permission permission;
+
+    public AclChangeDto() {
+    }
+
+    public AclChangeDto(long version, Long documentId, AclChangeType type, String username, Permission permission) {
+        this.version = version;
+        this.documentId = documentId;
+        this.type = type;
+        this.username = username;
+        this.permission = permission;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public AclChangeType getType() {
+        return type;
+    }
+
+    public void setType(AclChangeType type) {
+        this.type = type;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Permission getPermission() {
+        return permission;
+    }
+
+    public void setPermission(Permission permission) {
+        this.permission = permission;
+    }
+}
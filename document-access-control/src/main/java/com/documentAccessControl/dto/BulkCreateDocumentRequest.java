@@ -0,0 +1,27 @@
+package com.documentAccessControl.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BulkCreateDocumentRequest {
+    @Valid
+    @NotEmpty(message = "Documents are required")
+    private List<CreateDocumentRequest> documents;
+
+    public BulkCreateDocumentRequest() {
+    }
+
+    public BulkCreateDocumentRequest(List<CreateDocumentRequest> documents) {
+        this.documents = documents;
+    }
+
+    public List<CreateDocumentRequest> getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(List<CreateDocumentRequest> documents) {
+        this.documents = documents;
+    }
+}
@@ -0,0 +1,49 @@
+package com.documentAccessControl.dto;
+
+import com.documentAccessControl.entity.Permission;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+public class BulkGrantItem {
+    @NotNull(message = "Document ID is required")
+    private Long documentId;
+
+    @NotBlank(message = "Username is required")
+    private String username;
+
+    @NotNull(message = "Permission is required")
+    private Permission permission;
+
+    public BulkGrantItem() {
+    }
+
+    public BulkGrantItem(Long documentId, String username, Permission permission) {
+        this.documentId = documentId;
+        this.username = username;
+        this.permission = permission;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Permission getPermission() {
+        return permission;
+    }
+
+    public void setPermission(Permission permission) {
+        this.permission = permission;
+    }
+}
@@ -0,0 +1,27 @@
+package com.documentAccessControl.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BulkGrantRequest {
+    @Valid
+    @NotEmpty(message = "Grants are required")
+    private List<BulkGrantItem> grants;
+
+    public BulkGrantRequest() {
+    }
+
+    public BulkGrantRequest(List<BulkGrantItem> grants) {
+        this.grants = grants;
+    }
+
+    public List<BulkGrantItem> getGrants() {
+        return grants;
+    }
+
+    public void setGrants(List<BulkGrantItem> grants) {
+        this.grants = grants;
+    }
+}
@@ -0,0 +1,22 @@
+package com.documentAccessControl.dto;
+
+import java.util.List;
+
+public class BulkGrantResponse {
+    private List<BulkGrantResult> results;
+
+    public BulkGrantResponse() {
+    }
+
+    public BulkGrantResponse(List<BulkGrantResult> results) {
+        this.results = results;
+    }
+
+    public List<BulkGrantResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BulkGrantResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,59 @@
+package com.documentAccessControl.dto;
+
+import com.documentAccessControl.entity.Permission;
+
+public class BulkGrantResult {
+    public enum Status {
+        GRANTED,
+        ALREADY_GRANTED,
+        DOCUMENT_NOT_FOUND,
+        ACCESS_DENIED
+    }
+
+    private Long documentId;
+    private String username;
+    private Permission permission;
+    private Status status;
+
+    public BulkGrantResult() {
+    }
+
+    public BulkGrantResult(BulkGrantItem item, Status status) {
+        this.documentId = item.getDocumentId();
+        this.username = item.getUsername();
+        this.permission = item.getPermission();
+        this.status = status;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public Permission getPermission() {
+        return permission;
+    }
+
+    public void setPermission(Permission permission) {
+        this.permission = permission;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+}
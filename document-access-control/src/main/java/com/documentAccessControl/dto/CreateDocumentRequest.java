@@ -12,6 +12,8 @@ public class CreateDocumentRequest {
 
     private String fileType;
 
+    private Long folderId;
+
     private List<UserPermissionDto> accessibleUsers;
 
     public CreateDocumentRequest() {
@@ -41,6 +43,14 @@ public class CreateDocumentRequest {
         this.fileType = fileType;
     }
 
+    public Long getFolderId() {
+        return folderId;
+    }
+
+    public void setFolderId(Long folderId) {
+        this.folderId = folderId;
+    }
+
     public List<UserPermissionDto> getAccessibleUsers() {
         return accessibleUsers;
     }
@@ -0,0 +1,7 @@
+package com.documentAccessControl.dto;
+
+/**
+ * The caller named by the X-User header, resolved once per request to its interned user id.
+ */
+public record CurrentUser(int id, String username) {
+}
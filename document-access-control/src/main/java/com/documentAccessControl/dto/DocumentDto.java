@@ -1,5 +1,7 @@
 package com.documentAccessControl.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
 
 public class DocumentDto {
@@ -7,6 +9,8 @@ public class DocumentDto {
     private String name;
     private String content;
     private String fileType;
+    private Long folderId;
+    private long revision;
     private List<UserPermissionDto> accessibleUsers;
 
     public DocumentDto() {
@@ -24,6 +28,12 @@ public class DocumentDto {
         this.id = id;
     }
 
+    public DocumentDto(Long id, String name, String fileType) {
+        this.id = id;
+        this.name = name;
+        this.fileType = fileType;
+    }
+
     public Long getId() {
         return id;
     }
@@ -56,6 +66,23 @@ public class DocumentDto {
         this.fileType = fileType;
     }
 
+    @JsonIgnore
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public Long getFolderId() {
+        return folderId;
+    }
+
+    public void setFolderId(Long folderId) {
+        this.folderId = folderId;
+    }
+
     public List<UserPermissionDto> getAccessibleUsers() {
         return accessibleUsers;
     }
@@ -0,0 +1,32 @@
+package com.documentAccessControl.dto;
+
+import java.util.List;
+
+public class DocumentPageDto {
+    private List<DocumentDto> documents;
+    private Long nextCursor;
+
+    public DocumentPageDto() {
+    }
+
+    public DocumentPageDto(List<DocumentDto> documents, Long nextCursor) {
+        this.documents = documents;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<DocumentDto> getDocuments() {
+        return documents;
+    }
+
+    public void setDocuments(List<DocumentDto> documents) {
+        this.documents = documents;
+    }
+
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
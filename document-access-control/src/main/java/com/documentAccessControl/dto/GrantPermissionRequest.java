@@ -1,13 +1,13 @@
 package com.documentAccessControl.dto;
 
 import com.documentAccessControl.entity.Permission;
-import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 public class GrantPermissionRequest {
-    @NotBlank(message = "Username is required")
     private String username;
 
+    private String group;
+
     @NotNull(message = "Permission is required")
     private Permission permission;
 
@@ -27,6 +27,14 @@ public class GrantPermissionRequest {
         this.username = username;
     }
 
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(String group) {
+        this.group = group;
+    }
+
     public Permission getPermission() {
         return permission;
     }
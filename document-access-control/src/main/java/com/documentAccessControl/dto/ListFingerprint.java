@@ -0,0 +1,41 @@
+package com.documentAccessControl.dto;
+
+import java.util.List;
+
+/**
+ * Aggregate over a document listing that changes whenever a document enters or leaves it or any of its
+ * documents gets a new revision. It can be computed from the loaded list or with one aggregate query,
+ * so a conditional GET is answered without loading the list.
+ */
+public record ListFingerprint(long count, long hashSum) {
+    // largest prime whose square still fits a signed BIGINT; being above the INT range also keeps H2 from
+    // typing the intermediate MOD results as INT
+    private static final long PRIME = 3037000493L;
+    private static final long MULTIPLIER = 1000003L;
+
+    /**
+     * Per-row hash for the aggregate query; must compute the same value as {@link #rowHash}. Squaring makes the sum
+     * non-linear, so listings such as ids {3, 7} and {4, 6} no longer add up to the same fingerprint.
+     */
+    public static final String ROW_HASH_JPQL =
+            "MOD(MOD(d.id * " + MULTIPLIER + " + d.revision, " + PRIME + ") * MOD(d.id * " + MULTIPLIER + " + d.revision, "
+            + PRIME + "), " + PRIME + ")";
+
+    public static ListFingerprint of(List<DocumentDto> documents) {
+        long hashSum = 0;
+        for (DocumentDto document : documents) {
+            hashSum += rowHash(document.getId(), document.getRevision());
+        }
+        return new ListFingerprint(documents.size(), hashSum);
+    }
+
+    static long rowHash(long id, long revision) {
+        long mixed = (id * MULTIPLIER + revision) % PRIME;
+        return mixed * mixed % PRIME;
+    }
+
+    // weak: equal fingerprints mean an equivalent listing, not a byte-identical body
+    public String toEtag() {
+        return "W/\"" + Long.toHexString(count) + "-" + Long.toHexString(hashSum) + "\"";
+    }
+}
@@ -0,0 +1,20 @@
+package com.documentAccessControl.dto;
+
+public class MoveFolderRequest {
+    private Long parentId;
+
+    public MoveFolderRequest() {
+    }
+
+    public MoveFolderRequest(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+}
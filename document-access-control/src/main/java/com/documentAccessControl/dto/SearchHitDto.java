@@ -0,0 +1,50 @@
+package com.documentAccessControl.dto;
+
+public class SearchHitDto {
+    private Long id;
+    private String name;
+    private String fileType;
+    private double score;
+
+    public SearchHitDto() {
+    }
+
+    public SearchHitDto(Long id, String name, String fileType, double score) {
+        this.id = id;
+        this.name = name;
+        this.fileType = fileType;
+        this.score = score;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
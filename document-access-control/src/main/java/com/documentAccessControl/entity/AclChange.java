@@ -0,0 +1,63 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One ACL mutation in the change feed; the identity column is the feed version.
+ * Rows are appended and read in batches through {@link com.documentAccessControl.repository.AclChangeRepository},
+ * the mapping only keeps the table under the same schema management as the rest.
+ */
+@Entity
+@Table(name = "acl_change_log")
+public class AclChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long version;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private AclChangeType changeType;
+
+    @Column(name = "user_id")
+    private Integer userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "permission", length = 10)
+    private Permission permission;
+
+    @Column(name = "created_at", nullable = false, columnDefinition = "TIMESTAMP(3)")
+    private LocalDateTime createdAt;
+
+    public AclChange() {
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public AclChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public Permission getPermission() {
+        return permission;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
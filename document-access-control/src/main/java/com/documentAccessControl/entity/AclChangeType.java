@@ -0,0 +1,8 @@
+package com.documentAccessControl.entity;
+
+public enum AclChangeType {
+    CREATED,
+    GRANTED,
+    REVOKED,
+    DELETED
+}
@@ -1,44 +1,55 @@
 package com.documentAccessControl.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "documents")
+@Table(name = "documents", indexes = {
+        @Index(name = "idx_documents_folder", columnList = "folder_id, id")
+})
+@NamedEntityGraph(name = Document.WITH_PERMISSIONS, attributeNodes = @NamedAttributeNode("permissions"))
 public class Document {
+    public static final String WITH_PERMISSIONS = "Document.withPermissions";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_seq")
+    @SequenceGenerator(name = "document_seq", sequenceName = "document_seq", allocationSize = 100)
     private Long id;
 
     @Column(name = "name", nullable = false)
     private String name;
 
-    @Column(name = "content", columnDefinition = "TEXT")
-    private String content;
-
     @Column(name = "file_type", columnDefinition = "VARCHAR(255)")
     private String fileType;
 
-    @Column(name = "created_by", nullable = false, columnDefinition = "VARCHAR(255)")
-    private String createdBy;
+    @Column(name = "owner_id", nullable = false)
+    private int ownerId;
+
+    @Column(name = "folder_id")
+    private Long folderId;
+
+    // bumped with an UPDATE ... + 1 on every change to the document's representation; the basis of its ETag
+    @Column(name = "revision", columnDefinition = "BIGINT DEFAULT 0 NOT NULL")
+    private long revision;
 
     @Column(name = "created_at", columnDefinition = "TIMESTAMP")
     private LocalDateTime createdAt;
 
-    @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "document", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
     private List<DocumentPermission> permissions = new ArrayList<>();
 
     public Document() {
     }
 
-    public Document(String name, String content, String fileType, String createdBy) {
+    public Document(String name, String fileType, int ownerId) {
         this.name = name;
-        this.content = content;
         this.fileType = fileType;
-        this.createdBy = createdBy;
+        this.ownerId = ownerId;
         this.createdAt = LocalDateTime.now();
     }
 
@@ -65,20 +76,28 @@ public class Document {
         this.name = name;
     }
 
-    public String getContent() {
-        return content;
+    public int getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(int ownerId) {
+        this.ownerId = ownerId;
     }
 
-    public void setContent(String content) {
-        this.content = content;
+    public long getRevision() {
+        return revision;
     }
 
-    public String getCreatedBy() {
-        return createdBy;
+    public void setRevision(long revision) {
+        this.revision = revision;
     }
 
-    public void setCreatedBy(String createdBy) {
-        this.createdBy = createdBy;
+    public Long getFolderId() {
+        return folderId;
+    }
+
+    public void setFolderId(Long folderId) {
+        this.folderId = folderId;
     }
 
     public String getFileType() {
@@ -110,6 +129,16 @@ public class Document {
         permission.setDocument(this);
     }
 
+    public boolean grant(int userId, Permission permission) {
+        for (DocumentPermission documentPermission : permissions) {
+            if (documentPermission.getUserId() == userId) {
+                return documentPermission.grant(permission);
+            }
+        }
+        addPermission(new DocumentPermission(userId, permission));
+        return true;
+    }
+
     public void removePermission(DocumentPermission permission) {
         permissions.remove(permission);
         permission.setDocument(null);
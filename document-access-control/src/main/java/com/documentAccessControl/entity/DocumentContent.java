@@ -0,0 +1,50 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+@Entity
+@Table(name = "document_content")
+public class DocumentContent {
+
+    @Id
+    private Long documentId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Document document;
+
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String content;
+
+    public DocumentContent() {
+    }
+
+    public DocumentContent(Document document, String content) {
+        this.document = document;
+        this.content = content;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public void setDocument(Document document) {
+        this.document = document;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
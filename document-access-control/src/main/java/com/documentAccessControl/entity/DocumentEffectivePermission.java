@@ -0,0 +1,57 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Derived ACL entry: one row per permission a user effectively holds on a document, owner rights included,
+ * so access checks are a lookup on (user_id, permission, document_id) without the owner OR-branch.
+ */
+@Entity
+@Table(name = "document_effective_permission", indexes = {
+        @Index(name = "idx_effective_permission_lookup", columnList = "user_id, permission, document_id")
+})
+public class DocumentEffectivePermission implements Persistable<DocumentEffectivePermissionId> {
+
+    @EmbeddedId
+    private DocumentEffectivePermissionId id;
+
+    @MapsId("documentId")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Document document;
+
+    @Transient
+    private boolean newEntry = true;
+
+    public DocumentEffectivePermission() {
+    }
+
+    public DocumentEffectivePermission(Document document, int userId, Permission permission) {
+        this.id = new DocumentEffectivePermissionId(userId, permission, document.getId());
+        this.document = document;
+    }
+
+    @Override
+    public DocumentEffectivePermissionId getId() {
+        return id;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntry = false;
+    }
+}
@@ -0,0 +1,61 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class DocumentEffectivePermissionId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "permission", nullable = false, length = 10)
+    private Permission permission;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    public DocumentEffectivePermissionId() {
+    }
+
+    public DocumentEffectivePermissionId(int userId, Permission permission, Long documentId) {
+        this.userId = userId;
+        this.permission = permission;
+        this.documentId = documentId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Permission getPermission() {
+        return permission;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DocumentEffectivePermissionId that)) {
+            return false;
+        }
+        return userId == that.userId && permission == that.permission
+                && Objects.equals(documentId, that.documentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, permission, documentId);
+    }
+}
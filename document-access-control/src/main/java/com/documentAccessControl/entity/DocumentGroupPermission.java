@@ -0,0 +1,77 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.List;
+
+/**
+ * Grant of a permission mask to a group. Never read on the access-check path: every member's share of it is
+ * expanded into document_effective_permission when the grant or the membership changes.
+ */
+@Entity
+@Table(name = "document_group_permission", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_document_group_permission_group", columnNames = {"DOCUMENT_ID", "GROUP_ID"})
+}, indexes = {
+        @Index(name = "idx_document_group_permission_group", columnList = "group_id, document_id")
+})
+public class DocumentGroupPermission {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_group_permission_seq")
+    @SequenceGenerator(name = "document_group_permission_seq", sequenceName = "document_group_permission_seq", allocationSize = 100)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Document document;
+
+    @Column(name = "group_id", nullable = false)
+    private int groupId;
+
+    @Column(name = "permission_mask", nullable = false)
+    private int permissionMask;
+
+    public DocumentGroupPermission() {
+    }
+
+    public DocumentGroupPermission(Document document, int groupId, Permission permission) {
+        this.document = document;
+        this.groupId = groupId;
+        this.permissionMask = permission.getMask();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public int getGroupId() {
+        return groupId;
+    }
+
+    public int getPermissionMask() {
+        return permissionMask;
+    }
+
+    public boolean hasPermission(Permission permission) {
+        return permission.isGrantedBy(permissionMask);
+    }
+
+    public List<Permission> getGrantedPermissions() {
+        return Permission.fromMask(permissionMask);
+    }
+
+    public boolean grant(Permission permission) {
+        if (hasPermission(permission)) {
+            return false;
+        }
+        permissionMask |= permission.getMask();
+        return true;
+    }
+}
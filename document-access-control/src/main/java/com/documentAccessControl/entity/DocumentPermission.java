@@ -1,35 +1,36 @@
 package com.documentAccessControl.entity;
 
 import jakarta.persistence.*;
-import org.hibernate.annotations.ManyToAny;
+
+import java.util.List;
 
 @Entity
 @Table(name = "document_permission", uniqueConstraints = {
-        @UniqueConstraint(columnNames = {"DOCUMENT_ID", "USERNAME", "PERMISSION"})
+        @UniqueConstraint(name = "uk_document_permission_user", columnNames = {"DOCUMENT_ID", "USER_ID"})
 })
 public class DocumentPermission {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "document_permission_seq")
+    @SequenceGenerator(name = "document_permission_seq", sequenceName = "document_permission_seq", allocationSize = 100)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "document_id", nullable = false)
     private Document document;
 
-    @Column(nullable = false)
-    private String username;
+    @Column(name = "user_id", nullable = false)
+    private int userId;
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
-    private Permission permission;
+    @Column(name = "permission_mask", nullable = false)
+    private int permissionMask;
 
     public DocumentPermission() {
     }
 
-    public DocumentPermission(String username, Permission permission) {
-        this.username = username;
-        this.permission = permission;
+    public DocumentPermission(int userId, Permission permission) {
+        this.userId = userId;
+        this.permissionMask = permission.getMask();
     }
 
     public Long getId() {
@@ -48,19 +49,35 @@ public class DocumentPermission {
         this.document = document;
     }
 
-    public String getUsername() {
-        return username;
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getPermissionMask() {
+        return permissionMask;
+    }
+
+    public void setPermissionMask(int permissionMask) {
+        this.permissionMask = permissionMask;
     }
 
-    public void setUsername(String username) {
-        this.username = username;
+    public boolean hasPermission(Permission permission) {
+        return permission.isGrantedBy(permissionMask);
     }
 
-    public Permission getPermission() {
-        return permission;
+    public List<Permission> getGrantedPermissions() {
+        return Permission.fromMask(permissionMask);
     }
 
-    public void setPermission(Permission permission) {
-        this.permission = permission;
+    public boolean grant(Permission permission) {
+        if (hasPermission(permission)) {
+            return false;
+        }
+        permissionMask |= permission.getMask();
+        return true;
     }
 }
@@ -0,0 +1,50 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "folders")
+public class Folder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    public Folder() {
+    }
+
+    public Folder(String name, Long parentId) {
+        this.name = name;
+        this.parentId = parentId;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+}
@@ -0,0 +1,52 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * One row per (ancestor, descendant) folder pair, including each folder paired with itself at depth 0,
+ * so "every folder above this one" is a single index range instead of a walk up the parent chain.
+ */
+@Entity
+@Table(name = "folder_closure", indexes = {
+        @Index(name = "idx_folder_closure_descendant", columnList = "descendant_id, ancestor_id")
+})
+public class FolderClosure implements Persistable<FolderClosureId> {
+
+    @EmbeddedId
+    private FolderClosureId id;
+
+    @Column(nullable = false)
+    private int depth;
+
+    @Transient
+    private boolean newEntry = true;
+
+    public FolderClosure() {
+    }
+
+    public FolderClosure(Long ancestorId, Long descendantId, int depth) {
+        this.id = new FolderClosureId(ancestorId, descendantId);
+        this.depth = depth;
+    }
+
+    @Override
+    public FolderClosureId getId() {
+        return id;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntry = false;
+    }
+}
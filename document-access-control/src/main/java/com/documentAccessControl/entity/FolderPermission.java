@@ -0,0 +1,43 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Permission granted on a folder, inherited by every document in the folder's subtree through folder_closure.
+ */
+@Entity
+@Table(name = "folder_permission", indexes = {
+        @Index(name = "idx_folder_permission_lookup", columnList = "user_id, permission, folder_id")
+})
+public class FolderPermission implements Persistable<FolderPermissionId> {
+
+    @EmbeddedId
+    private FolderPermissionId id;
+
+    @Transient
+    private boolean newEntry = true;
+
+    public FolderPermission() {
+    }
+
+    public FolderPermission(Long folderId, int userId, Permission permission) {
+        this.id = new FolderPermissionId(userId, permission, folderId);
+    }
+
+    @Override
+    public FolderPermissionId getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntry;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntry = false;
+    }
+}
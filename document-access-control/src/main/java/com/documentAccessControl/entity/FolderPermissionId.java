@@ -0,0 +1,60 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class FolderPermissionId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "permission", nullable = false, length = 10)
+    private Permission permission;
+
+    @Column(name = "folder_id", nullable = false)
+    private Long folderId;
+
+    public FolderPermissionId() {
+    }
+
+    public FolderPermissionId(int userId, Permission permission, Long folderId) {
+        this.userId = userId;
+        this.permission = permission;
+        this.folderId = folderId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public Permission getPermission() {
+        return permission;
+    }
+
+    public Long getFolderId() {
+        return folderId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof FolderPermissionId that)) {
+            return false;
+        }
+        return userId == that.userId && permission == that.permission && Objects.equals(folderId, that.folderId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, permission, folderId);
+    }
+}
@@ -0,0 +1,24 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "group_members", indexes = {
+        @Index(name = "idx_group_members_user", columnList = "user_id, group_id")
+})
+public class GroupMember {
+
+    @EmbeddedId
+    private GroupMemberId id;
+
+    public GroupMember() {
+    }
+
+    public GroupMember(int groupId, int userId) {
+        this.id = new GroupMemberId(groupId, userId);
+    }
+
+    public GroupMemberId getId() {
+        return id;
+    }
+}
@@ -0,0 +1,49 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class GroupMemberId implements Serializable {
+
+    @Column(name = "group_id", nullable = false)
+    private int groupId;
+
+    @Column(name = "user_id", nullable = false)
+    private int userId;
+
+    public GroupMemberId() {
+    }
+
+    public GroupMemberId(int groupId, int userId) {
+        this.groupId = groupId;
+        this.userId = userId;
+    }
+
+    public int getGroupId() {
+        return groupId;
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GroupMemberId that)) {
+            return false;
+        }
+        return groupId == that.groupId && userId == that.userId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, userId);
+    }
+}
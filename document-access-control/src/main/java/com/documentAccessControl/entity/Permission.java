@@ -1,7 +1,34 @@
 package com.documentAccessControl.entity;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public enum Permission {
-    READ,
-    WRITE,
-    DELETE
+    READ(1),
+    WRITE(2),
+    DELETE(4);
+
+    private final int mask;
+
+    Permission(int mask) {
+        this.mask = mask;
+    }
+
+    public int getMask() {
+        return mask;
+    }
+
+    public boolean isGrantedBy(int permissionMask) {
+        return (permissionMask & mask) != 0;
+    }
+
+    public static List<Permission> fromMask(int permissionMask) {
+        List<Permission> permissions = new ArrayList<>(3);
+        for (Permission permission : values()) {
+            if (permission.isGrantedBy(permissionMask)) {
+                permissions.add(permission);
+            }
+        }
+        return permissions;
+    }
 }
@@ -0,0 +1,38 @@
+package com.documentAccessControl.entity;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "user_groups")
+public class UserGroup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    public UserGroup() {
+    }
+
+    public UserGroup(String name) {
+        this.name = name;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
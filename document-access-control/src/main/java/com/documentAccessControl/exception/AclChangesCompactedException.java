@@ -0,0 +1,8 @@
+package com.documentAccessControl.exception;
+
+public class AclChangesCompactedException extends RuntimeException {
+
+    public AclChangesCompactedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,69 @@
+package com.documentAccessControl.metrics;
+
+import com.documentAccessControl.entity.Permission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Component
+public class DocumentMetrics {
+    private final Map<Permission, Counter> allowedChecks = new EnumMap<>(Permission.class);
+    private final Map<Permission, Counter> deniedChecks = new EnumMap<>(Permission.class);
+    private final DistributionSummary accessCheckSize;
+    private final Counter executedAccessChecks;
+    private final Counter coalescedAccessChecks;
+    private final DistributionSummary accessCheckBatchSize;
+
+    public DocumentMetrics(MeterRegistry meterRegistry) {
+        for (Permission permission : Permission.values()) {
+            allowedChecks.put(permission, permissionCheckCounter(meterRegistry, permission, "allow"));
+            deniedChecks.put(permission, permissionCheckCounter(meterRegistry, permission, "deny"));
+        }
+        accessCheckSize = DistributionSummary.builder("document.access.check.ids")
+                .description("Number of document ids sent to a single access check")
+                .baseUnit("ids")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        executedAccessChecks = accessCheckExecutionCounter(meterRegistry, "executed");
+        coalescedAccessChecks = accessCheckExecutionCounter(meterRegistry, "coalesced");
+        accessCheckBatchSize = DistributionSummary.builder("document.access.check.batch.requests")
+                .description("Access check lookups merged into a single query by the batching dispatcher")
+                .baseUnit("requests")
+                .register(meterRegistry);
+    }
+
+    public void recordPermissionCheck(Permission permission, boolean allowed) {
+        (allowed ? allowedChecks : deniedChecks).get(permission).increment();
+    }
+
+    public void recordAccessCheckSize(int documentIdCount) {
+        accessCheckSize.record(documentIdCount);
+    }
+
+    public void recordAccessCheckExecution(boolean coalesced) {
+        (coalesced ? coalescedAccessChecks : executedAccessChecks).increment();
+    }
+
+    public void recordAccessCheckBatch(int requestCount) {
+        accessCheckBatchSize.record(requestCount);
+    }
+
+    private static Counter accessCheckExecutionCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("document.access.check.requests")
+                .description("Access check requests, by whether they ran or shared an identical in-flight check")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter permissionCheckCounter(MeterRegistry meterRegistry, Permission permission, String outcome) {
+        return Counter.builder("document.permission.checks")
+                .description("Outcomes of per-document permission checks")
+                .tag("permission", permission.name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,74 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.AclChangeType;
+import com.documentAccessControl.entity.Permission;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// plain JDBC so an append is one batched statement; Hibernate cannot batch inserts into an identity column
+@Repository
+@Timed(value = "acl.change.query", histogram = true)
+public class AclChangeRepository {
+    private static final String INSERT_CHANGE =
+            "INSERT INTO acl_change_log (document_id, change_type, user_id, permission, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_CHANGES_AFTER =
+            "SELECT version, document_id, change_type, user_id, permission, created_at FROM acl_change_log " +
+            "WHERE version > ? ORDER BY version LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AclChangeRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void append(List<Change> changes, LocalDateTime createdAt) {
+        Timestamp timestamp = Timestamp.valueOf(createdAt);
+        List<Object[]> rows = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            rows.add(new Object[]{change.documentId(), change.type().name(), change.userId(),
+                    change.permission() == null ? null : change.permission().name(), timestamp});
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows,
+                new int[]{Types.BIGINT, Types.VARCHAR, Types.INTEGER, Types.VARCHAR, Types.TIMESTAMP});
+    }
+
+    public List<Change> findChangesAfter(long version, int limit) {
+        return jdbcTemplate.query(SELECT_CHANGES_AFTER, (rs, rowNum) -> {
+            Integer userId = rs.getObject("user_id", Integer.class);
+            String permission = rs.getString("permission");
+            return new Change(rs.getLong("version"), rs.getLong("document_id"),
+                    AclChangeType.valueOf(rs.getString("change_type")), userId,
+                    permission == null ? null : Permission.valueOf(permission),
+                    rs.getTimestamp("created_at").toLocalDateTime());
+        }, version, limit);
+    }
+
+    public Long findOldestVersion() {
+        return jdbcTemplate.queryForObject("SELECT MIN(version) FROM acl_change_log", Long.class);
+    }
+
+    public Long findLatestVersion() {
+        return jdbcTemplate.queryForObject("SELECT MAX(version) FROM acl_change_log", Long.class);
+    }
+
+    public int deleteUpTo(long version) {
+        return jdbcTemplate.update("DELETE FROM acl_change_log WHERE version <= ?", version);
+    }
+
+    public record Change(Long version, Long documentId, AclChangeType type, Integer userId, Permission permission,
+                         LocalDateTime createdAt) {
+
+        public Change(Long documentId, AclChangeType type, Integer userId, Permission permission) {
+            this(null, documentId, type, userId, permission, null);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.DocumentContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface DocumentContentRepository extends JpaRepository<DocumentContent, Long> {
+
+    @Query("SELECT c.documentId, c.content FROM DocumentContent c WHERE c.documentId IN :documentIds")
+    List<Object[]> findContentByDocumentIds(@Param("documentIds") List<Long> documentIds);
+
+}
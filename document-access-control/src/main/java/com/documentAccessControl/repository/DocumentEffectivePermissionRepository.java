@@ -0,0 +1,32 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.DocumentEffectivePermission;
+import com.documentAccessControl.entity.DocumentEffectivePermissionId;
+import com.documentAccessControl.entity.Permission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DocumentEffectivePermissionRepository extends JpaRepository<DocumentEffectivePermission, DocumentEffectivePermissionId> {
+
+    @Query("SELECT e.id FROM DocumentEffectivePermission e WHERE e.id.userId = :userId AND e.id.documentId IN :documentIds")
+    List<DocumentEffectivePermissionId> findIdsByUserIdAndDocumentIds(@Param("userId") int userId,
+                                                                      @Param("documentIds") Collection<Long> documentIds);
+
+    @Query("SELECT e.id.userId FROM DocumentEffectivePermission e " +
+            "WHERE e.id.documentId = :documentId AND e.id.permission = :permission AND e.id.userId IN :userIds")
+    List<Integer> findUserIdsWithPermission(@Param("documentId") Long documentId,
+                                            @Param("permission") Permission permission,
+                                            @Param("userIds") Collection<Integer> userIds);
+
+    @Modifying
+    @Query("DELETE FROM DocumentEffectivePermission e " +
+            "WHERE e.id.userId = :userId AND e.id.permission = :permission AND e.id.documentId IN :documentIds")
+    int deleteByUserIdAndPermission(@Param("userId") int userId,
+                                    @Param("permission") Permission permission,
+                                    @Param("documentIds") Collection<Long> documentIds);
+}
@@ -0,0 +1,86 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.dto.DocumentDto;
+import com.documentAccessControl.dto.UserPermissionDto;
+import com.documentAccessControl.entity.Permission;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+@Repository
+@Timed(value = "document.export.query", histogram = true)
+public class DocumentExportRepository {
+    private static final String SELECT_DOCUMENTS =
+            "SELECT d.id, d.name, c.content, d.file_type, u.username, p.permission_mask " +
+            "FROM documents d LEFT JOIN document_content c ON c.document_id = d.id " +
+            "LEFT JOIN document_permission p ON p.document_id = d.id " +
+            "LEFT JOIN users u ON u.id = p.user_id ";
+
+    private static final String WHERE_ACCESSIBLE =
+            "WHERE d.id IN (SELECT e.document_id FROM document_effective_permission e " +
+            "WHERE e.user_id = ? AND e.permission = ?) " +
+            "OR d.folder_id IN (SELECT c.descendant_id FROM folder_closure c " +
+            "JOIN folder_permission f ON f.folder_id = c.ancestor_id WHERE f.user_id = ? AND f.permission = ?) ";
+
+    private static final String ORDER_BY_ID = "ORDER BY d.id, p.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DocumentExportRepository(DataSource dataSource, @Value("${document.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void streamAllDocuments(Consumer<DocumentDto> consumer) {
+        DocumentRowHandler handler = new DocumentRowHandler(consumer);
+        jdbcTemplate.query(SELECT_DOCUMENTS + ORDER_BY_ID, handler);
+        handler.finish();
+    }
+
+    public void streamDocumentsWithPermission(int userId, Permission permission, Consumer<DocumentDto> consumer) {
+        DocumentRowHandler handler = new DocumentRowHandler(consumer);
+        jdbcTemplate.query(SELECT_DOCUMENTS + WHERE_ACCESSIBLE + ORDER_BY_ID, handler, userId, permission.name(),
+                userId, permission.name());
+        handler.finish();
+    }
+
+    private static class DocumentRowHandler implements RowCallbackHandler {
+        private final Consumer<DocumentDto> consumer;
+        private DocumentDto current;
+
+        DocumentRowHandler(Consumer<DocumentDto> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || current.getId() != id) {
+                finish();
+                current = new DocumentDto(id, rs.getString("name"), rs.getString("content"),
+                        rs.getString("file_type"), new ArrayList<>());
+            }
+            String username = rs.getString("username");
+            if (username != null) {
+                for (Permission permission : Permission.fromMask(rs.getInt("permission_mask"))) {
+                    current.getAccessibleUsers().add(new UserPermissionDto(username, permission));
+                }
+            }
+        }
+
+        void finish() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
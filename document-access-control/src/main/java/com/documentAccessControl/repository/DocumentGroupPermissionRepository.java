@@ -0,0 +1,26 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.DocumentGroupPermission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface DocumentGroupPermissionRepository extends JpaRepository<DocumentGroupPermission, Long> {
+
+    @Query("SELECT p FROM DocumentGroupPermission p WHERE p.document.id = :documentId AND p.groupId = :groupId")
+    Optional<DocumentGroupPermission> findByDocumentIdAndGroupId(@Param("documentId") Long documentId,
+                                                                 @Param("groupId") int groupId);
+
+    @Query("SELECT p.document.id FROM DocumentGroupPermission p WHERE p.groupId = :groupId")
+    List<Long> findDocumentIdsByGroupId(@Param("groupId") int groupId);
+
+    // combined mask per document over every group the user belongs to
+    @Query("SELECT p.document.id, p.permissionMask FROM DocumentGroupPermission p, GroupMember m " +
+            "WHERE m.id.groupId = p.groupId AND m.id.userId = :userId AND p.document.id IN :documentIds")
+    List<Object[]> findMemberPermissionEntries(@Param("userId") int userId,
+                                               @Param("documentIds") Collection<Long> documentIds);
+}
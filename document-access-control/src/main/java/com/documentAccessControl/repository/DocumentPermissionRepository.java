@@ -0,0 +1,16 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.DocumentPermission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DocumentPermissionRepository extends JpaRepository<DocumentPermission, Long> {
+
+    @Query("SELECT p FROM DocumentPermission p WHERE p.document.id IN :documentIds AND p.userId IN :userIds")
+    List<DocumentPermission> findByDocumentIdsAndUserIds(@Param("documentIds") Collection<Long> documentIds,
+                                                         @Param("userIds") Collection<Integer> userIds);
+}
@@ -1,27 +1,116 @@
 package com.documentAccessControl.repository;
 
+import com.documentAccessControl.dto.DocumentDto;
+import com.documentAccessControl.dto.ListFingerprint;
 import com.documentAccessControl.entity.Document;
 import com.documentAccessControl.entity.Permission;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface DocumentRepository extends JpaRepository<Document, Long> {
 
-    @Query("SELECT DISTINCT d FROM Document d LEFT JOIN d.permissions p " +
-            "WHERE d.createdBy = :username OR (p.username = :username AND p.permission = :permission)")
-    List<Document> findDocumentsWithPermission(@Param("username") String username, @Param("permission") Permission permission);
+    @Override
+    @EntityGraph(Document.WITH_PERMISSIONS)
+    List<Document> findAll();
 
+    @EntityGraph(Document.WITH_PERMISSIONS)
+    Optional<Document> findWithPermissionsById(Long id);
 
-    @Query("SELECT d.id FROM Document d LEFT JOIN d.permissions p " +
-            "WHERE d.id IN :documentIds AND (d.createdBy = :username OR (p.username = :username AND p.permission = :permission))")
-    List<Long> findAccessibleDocumentIds(@Param("username") String username,
+    @Query("SELECT d.ownerId FROM Document d WHERE d.id = :id")
+    Optional<Integer> findOwnerById(@Param("id") Long id);
+
+    @EntityGraph(Document.WITH_PERMISSIONS)
+    @Query("SELECT d FROM Document d WHERE d.id IN (SELECT e.id.documentId FROM DocumentEffectivePermission e " +
+            "WHERE e.id.userId = :userId AND e.id.permission = :permission) " +
+            "OR d.folderId IN (SELECT c.id.descendantId FROM FolderClosure c, FolderPermission p " +
+            "WHERE p.id.folderId = c.id.ancestorId AND p.id.userId = :userId AND p.id.permission = :permission)")
+    List<Document> findDocumentsWithPermission(@Param("userId") int userId, @Param("permission") Permission permission);
+
+    // direct, owner and group grants come from the effective table; folder grants from the folder's ancestors
+    @Query("SELECT e.id.documentId FROM DocumentEffectivePermission e " +
+            "WHERE e.id.userId = :userId AND e.id.permission = :permission AND e.id.documentId IN :documentIds " +
+            "UNION SELECT d.id FROM Document d JOIN FolderClosure c ON c.id.descendantId = d.folderId " +
+            "JOIN FolderPermission p ON p.id.folderId = c.id.ancestorId " +
+            "WHERE d.id IN :documentIds AND p.id.userId = :userId AND p.id.permission = :permission")
+    List<Long> findAccessibleDocumentIds(@Param("userId") int userId,
                                          @Param("permission") Permission permission,
-                                         @Param("documentIds") List<Long> documentIds);
+                                         @Param("documentIds") Collection<Long> documentIds);
+
+    @Query("SELECT DISTINCT d.id FROM Document d JOIN FolderClosure c ON c.id.descendantId = d.folderId " +
+            "JOIN FolderPermission p ON p.id.folderId = c.id.ancestorId " +
+            "WHERE d.id IN :documentIds AND p.id.userId = :userId AND p.id.permission = :permission")
+    List<Long> findDocumentIdsGrantedThroughFolders(@Param("userId") int userId,
+                                                    @Param("permission") Permission permission,
+                                                    @Param("documentIds") Collection<Long> documentIds);
+
+    @Query("SELECT d.revision FROM Document d WHERE d.id = :id")
+    Optional<Long> findRevisionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.revision = d.revision + 1 WHERE d.id IN :documentIds")
+    int incrementRevisions(@Param("documentIds") Collection<Long> documentIds);
+
+    @Query("SELECT new com.documentAccessControl.dto.ListFingerprint(COUNT(d), " +
+            "COALESCE(SUM(" + ListFingerprint.ROW_HASH_JPQL + "), 0)) FROM Document d")
+    ListFingerprint findListFingerprint();
+
+    @Query("SELECT new com.documentAccessControl.dto.ListFingerprint(COUNT(d), " +
+            "COALESCE(SUM(" + ListFingerprint.ROW_HASH_JPQL + "), 0)) FROM Document d " +
+            "WHERE d.id IN (SELECT e.id.documentId FROM DocumentEffectivePermission e " +
+            "WHERE e.id.userId = :userId AND e.id.permission = :permission) " +
+            "OR d.folderId IN (SELECT c.id.descendantId FROM FolderClosure c, FolderPermission p " +
+            "WHERE p.id.folderId = c.id.ancestorId AND p.id.userId = :userId AND p.id.permission = :permission)")
+    ListFingerprint findListFingerprintWithPermission(@Param("userId") int userId, @Param("permission") Permission permission);
 
     @Query("SELECT d.id FROM Document d WHERE d.id IN :documentIds")
     List<Long> findExistingDocumentIds(@Param("documentIds") List<Long> documentIds);
 
+    @Query("SELECT d.id FROM Document d WHERE d.folderId IN :folderIds")
+    List<Long> findIdsByFolderIds(@Param("folderIds") Collection<Long> folderIds);
+
+    @Query("SELECT new com.documentAccessControl.dto.DocumentDto(d.id, d.name, d.fileType) FROM Document d " +
+            "WHERE d.id > :after ORDER BY d.id")
+    List<DocumentDto> findDocumentSummariesAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT new com.documentAccessControl.dto.DocumentDto(d.id, d.name, d.fileType) " +
+            "FROM DocumentEffectivePermission e JOIN e.document d WHERE e.id.userId = :userId " +
+            "AND e.id.permission = :permission AND e.id.documentId > :after ORDER BY e.id.documentId")
+    List<DocumentDto> findDocumentSummariesWithPermissionAfter(@Param("userId") int userId,
+                                                               @Param("permission") Permission permission,
+                                                               @Param("after") Long after,
+                                                               Pageable pageable);
+
+    @Query("SELECT new com.documentAccessControl.dto.DocumentDto(d.id, d.name, d.fileType) FROM Document d " +
+            "WHERE d.id > :after AND d.folderId IN (SELECT c.id.descendantId FROM FolderClosure c, FolderPermission p " +
+            "WHERE p.id.folderId = c.id.ancestorId AND p.id.userId = :userId AND p.id.permission = :permission) " +
+            "ORDER BY d.id")
+    List<DocumentDto> findFolderDocumentSummariesWithPermissionAfter(@Param("userId") int userId,
+                                                                     @Param("permission") Permission permission,
+                                                                     @Param("after") Long after,
+                                                                     Pageable pageable);
+
+    @Query("SELECT p.document.id, p.userId, p.permissionMask FROM DocumentPermission p WHERE p.document.id IN :documentIds")
+    List<Object[]> findPermissionEntriesByDocumentIds(@Param("documentIds") List<Long> documentIds);
+
+    @Query("SELECT d.id, d.ownerId FROM Document d WHERE d.id IN :documentIds")
+    List<Object[]> findDocumentOwners(@Param("documentIds") Collection<Long> documentIds);
+
+    @Query("SELECT d.id, d.ownerId FROM Document d")
+    List<Object[]> findAllDocumentOwners();
+
+    @Query("SELECT p.document.id, p.userId, p.permissionMask FROM DocumentPermission p")
+    List<Object[]> findAllPermissionEntries();
+
+    @Query("SELECT p.document.id, m.id.userId, p.permissionMask FROM DocumentGroupPermission p, GroupMember m " +
+            "WHERE m.id.groupId = p.groupId")
+    List<Object[]> findAllGroupMemberPermissionEntries();
+
 }
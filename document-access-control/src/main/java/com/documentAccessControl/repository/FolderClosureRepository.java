@@ -0,0 +1,25 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.FolderClosure;
+import com.documentAccessControl.entity.FolderClosureId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FolderClosureRepository extends JpaRepository<FolderClosure, FolderClosureId> {
+
+    @Query("SELECT c FROM FolderClosure c WHERE c.id.descendantId = :folderId")
+    List<FolderClosure> findAncestors(@Param("folderId") Long folderId);
+
+    @Query("SELECT c FROM FolderClosure c WHERE c.id.ancestorId = :folderId")
+    List<FolderClosure> findSubtree(@Param("folderId") Long folderId);
+
+    // cuts the links from the subtree to everything above its root; links inside the subtree stay
+    @Modifying
+    @Query("DELETE FROM FolderClosure c WHERE c.id.descendantId IN :subtreeIds AND c.id.ancestorId NOT IN :subtreeIds")
+    int detachSubtree(@Param("subtreeIds") Collection<Long> subtreeIds);
+}
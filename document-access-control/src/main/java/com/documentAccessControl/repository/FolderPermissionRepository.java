@@ -0,0 +1,23 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.FolderPermission;
+import com.documentAccessControl.entity.FolderPermissionId;
+import com.documentAccessControl.entity.Permission;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface FolderPermissionRepository extends JpaRepository<FolderPermission, FolderPermissionId> {
+
+    @Query("SELECT COUNT(p) > 0 FROM FolderClosure c, FolderPermission p WHERE c.id.descendantId = :folderId " +
+            "AND p.id.folderId = c.id.ancestorId AND p.id.userId = :userId AND p.id.permission = :permission")
+    boolean existsInherited(@Param("userId") int userId,
+                            @Param("permission") Permission permission,
+                            @Param("folderId") Long folderId);
+
+    @Query("SELECT p.id FROM FolderPermission p WHERE p.id.folderId IN :folderIds")
+    List<FolderPermissionId> findIdsByFolderIds(@Param("folderIds") Collection<Long> folderIds);
+}
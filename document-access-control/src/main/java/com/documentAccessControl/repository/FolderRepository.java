@@ -0,0 +1,7 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.Folder;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface FolderRepository extends JpaRepository<Folder, Long> {
+}
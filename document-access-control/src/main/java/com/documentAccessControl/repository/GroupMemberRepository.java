@@ -0,0 +1,15 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.GroupMember;
+import com.documentAccessControl.entity.GroupMemberId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface GroupMemberRepository extends JpaRepository<GroupMember, GroupMemberId> {
+
+    @Query("SELECT m.id.userId FROM GroupMember m WHERE m.id.groupId = :groupId")
+    List<Integer> findUserIdsByGroupId(@Param("groupId") int groupId);
+}
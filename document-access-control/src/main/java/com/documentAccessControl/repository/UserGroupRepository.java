@@ -0,0 +1,11 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.UserGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface UserGroupRepository extends JpaRepository<UserGroup, Integer> {
+
+    Optional<UserGroup> findByName(String name);
+}
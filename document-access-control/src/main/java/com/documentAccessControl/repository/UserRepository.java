@@ -0,0 +1,11 @@
+package com.documentAccessControl.repository;
+
+import com.documentAccessControl.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface UserRepository extends JpaRepository<User, Integer> {
+
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,151 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.metrics.DocumentMetrics;
+import com.documentAccessControl.repository.DocumentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges concurrent {@link DocumentRepository#findAccessibleDocumentIds} lookups for the same user and permission
+ * into one query. The first caller opens a batch and waits up to the window, or until max-requests callers joined
+ * or the batch holds chunk-size ids, so the merged IN list is never larger than the chunks
+ * {@link AccessCheckExecutor} sends. It then runs the merged query on its own thread and hands each caller the
+ * subset it asked for. Disabled by default, in which case every lookup goes straight to the repository.
+ */
+@Component
+public class AccessCheckBatcher {
+
+    private final DocumentRepository documentRepository;
+    private final DocumentMetrics documentMetrics;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxRequests;
+    private final int maxIds;
+    private final ConcurrentMap<BatchKey, Batch> openBatches = new ConcurrentHashMap<>();
+
+    public AccessCheckBatcher(DocumentRepository documentRepository, DocumentMetrics documentMetrics,
+                              @Value("${document.access-check.batching.enabled:false}") boolean enabled,
+                              @Value("${document.access-check.batching.window:2ms}") Duration window,
+                              @Value("${document.access-check.batching.max-requests:64}") int maxRequests,
+                              @Value("${document.access-check.chunk-size:1000}") int maxIds) {
+        if (maxRequests < 1) {
+            throw new IllegalArgumentException("document.access-check.batching.max-requests must be at least 1");
+        }
+        this.documentRepository = documentRepository;
+        this.documentMetrics = documentMetrics;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxRequests = maxRequests;
+        this.maxIds = maxIds;
+    }
+
+    public List<Long> findAccessibleDocumentIds(int userId, Permission permission, List<Long> documentIds) {
+        if (!enabled) {
+            return documentRepository.findAccessibleDocumentIds(userId, permission, documentIds);
+        }
+
+        BatchKey key = new BatchKey(userId, permission);
+        Batch batch;
+        boolean leader;
+        while (true) {
+            Batch created = new Batch();
+            batch = openBatches.computeIfAbsent(key, k -> created);
+            leader = batch == created;
+            if (batch.join(documentIds, maxRequests, maxIds)) {
+                break;
+            }
+            // the batch filled up and closed between lookup and join, or these ids would overflow it
+            openBatches.remove(key, batch);
+        }
+
+        if (leader) {
+            flush(key, batch);
+        }
+        Set<Long> accessible = await(batch.result);
+        List<Long> accessibleIds = new ArrayList<>();
+        for (Long documentId : new LinkedHashSet<>(documentIds)) {
+            if (accessible.contains(documentId)) {
+                accessibleIds.add(documentId);
+            }
+        }
+        return accessibleIds;
+    }
+
+    private void flush(BatchKey key, Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        batch.close();
+        openBatches.remove(key, batch);
+
+        documentMetrics.recordAccessCheckBatch(batch.requests);
+        try {
+            batch.result.complete(new HashSet<>(documentRepository.findAccessibleDocumentIds(
+                    key.userId(), key.permission(), new ArrayList<>(batch.documentIds))));
+        } catch (Throwable e) {
+            batch.result.completeExceptionally(e);
+        }
+    }
+
+    private static Set<Long> await(CompletableFuture<Set<Long>> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record BatchKey(int userId, Permission permission) {
+    }
+
+    private static final class Batch {
+        private final Set<Long> documentIds = new LinkedHashSet<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private final CompletableFuture<Set<Long>> result = new CompletableFuture<>();
+        private int requests;
+        private boolean closed;
+
+        synchronized boolean join(List<Long> ids, int maxRequests, int maxIds) {
+            if (closed) {
+                return false;
+            }
+            // a lookup larger than maxIds still gets a batch of its own
+            if (!documentIds.isEmpty() && documentIds.size() + ids.size() > maxIds) {
+                close();
+                return false;
+            }
+            documentIds.addAll(ids);
+            if (++requests >= maxRequests || documentIds.size() >= maxIds) {
+                close();
+            }
+            return true;
+        }
+
+        synchronized void close() {
+            closed = true;
+            full.countDown();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.AccessCheckRequest;
+import com.documentAccessControl.dto.AccessCheckResponse;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.metrics.DocumentMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-flight in front of {@link DocumentService#checkAccess}: identical checks (user, permission and id list)
+ * arriving while one is running wait for it and share its response. Nothing outlives the running check, so a
+ * response is never older than the request it answers.
+ */
+@Component
+public class AccessCheckCoalescer {
+
+    private final DocumentService documentService;
+    private final DocumentMetrics documentMetrics;
+    private final ConcurrentMap<AccessCheckKey, CompletableFuture<AccessCheckResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public AccessCheckCoalescer(DocumentService documentService, DocumentMetrics documentMetrics) {
+        this.documentService = documentService;
+        this.documentMetrics = documentMetrics;
+    }
+
+    public AccessCheckResponse checkAccess(CurrentUser user, AccessCheckRequest request){
+        AccessCheckKey key = new AccessCheckKey(user.id(), request.getPermission(), request.getDocumentIds());
+        CompletableFuture<AccessCheckResponse> running = new CompletableFuture<>();
+        CompletableFuture<AccessCheckResponse> existing = inFlight.putIfAbsent(key, running);
+        if(existing != null){
+            documentMetrics.recordAccessCheckExecution(true);
+            return join(existing);
+        }
+
+        documentMetrics.recordAccessCheckExecution(false);
+        AccessCheckResponse response;
+        try {
+            response = documentService.checkAccess(user, request);
+        } catch (Throwable e) {
+            inFlight.remove(key, running);
+            running.completeExceptionally(e);
+            throw e;
+        }
+        // unregister first so that a request arriving from now on runs its own check
+        inFlight.remove(key, running);
+        running.complete(response);
+        return response;
+    }
+
+    private static AccessCheckResponse join(CompletableFuture<AccessCheckResponse> running){
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause){
+                throw cause;
+            }
+            if(e.getCause() instanceof Error cause){
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record AccessCheckKey(int userId, Permission permission, long[] documentIds) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof AccessCheckKey key && userId == key.userId && permission == key.permission
+                    && Arrays.equals(documentIds, key.documentIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * userId + permission.hashCode()) + Arrays.hashCode(documentIds);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.documentAccessControl.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Runs an access-check lookup over a large id set in bounded chunks, in parallel on a dedicated pool, and merges
+ * the results in ascending id order. The pool is not exposed as an Executor bean so that Spring Boot keeps its
+ * own applicationTaskExecutor; when its queue is full the calling request thread runs the chunk itself.
+ */
+@Component
+public class AccessCheckExecutor {
+
+    private final int maxIds;
+    private final int chunkSize;
+    private final ThreadPoolExecutor pool;
+
+    public AccessCheckExecutor(@Value("${document.access-check.max-ids:100000}") int maxIds,
+                               @Value("${document.access-check.chunk-size:1000}") int chunkSize,
+                               @Value("${document.access-check.parallelism:4}") int parallelism,
+                               @Value("${document.access-check.queue-capacity:100}") int queueCapacity,
+                               MeterRegistry meterRegistry) {
+        if (chunkSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("document.access-check.chunk-size and parallelism must be at least 1");
+        }
+        this.maxIds = maxIds;
+        this.chunkSize = chunkSize;
+        this.pool = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("access-check-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+        ExecutorServiceMetrics.monitor(meterRegistry, pool, "document.access.check.executor");
+    }
+
+    /**
+     * @return the ids accepted by {@code lookup}, ascending and without duplicates. {@code lookup} receives
+     * ascending, distinct chunks and may answer in any order; {@code documentIds} is not modified.
+     */
+    public long[] execute(long[] documentIds, UnaryOperator<long[]> lookup) {
+        long[] ids = sortedDistinct(documentIds);
+        if (ids.length > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " document ids can be checked in one request");
+        }
+        if (ids.length == 0) {
+            return ids;
+        }
+
+        if (ids.length <= chunkSize) {
+            return sorted(lookup.apply(ids));
+        }
+
+        List<CompletableFuture<long[]>> chunks = new ArrayList<>();
+        for (int from = chunkSize; from < ids.length; from += chunkSize) {
+            long[] chunk = Arrays.copyOfRange(ids, from, Math.min(from + chunkSize, ids.length));
+            chunks.add(CompletableFuture.supplyAsync(() -> sorted(lookup.apply(chunk)), pool));
+        }
+        // chunks cover ascending, disjoint ranges, so their sorted results concatenate in order
+        long[] first = sorted(lookup.apply(Arrays.copyOf(ids, chunkSize)));
+        long[] accessible = Arrays.copyOf(first, ids.length);
+        int count = first.length;
+        for (CompletableFuture<long[]> chunk : chunks) {
+            try {
+                long[] accepted = chunk.join();
+                System.arraycopy(accepted, 0, accessible, count, accepted.length);
+                count += accepted.length;
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return count == accessible.length ? accessible : Arrays.copyOf(accessible, count);
+    }
+
+    private static long[] sortedDistinct(long[] documentIds) {
+        long[] ids = documentIds.clone();
+        Arrays.sort(ids);
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[count - 1]) {
+                ids[count++] = ids[i];
+            }
+        }
+        return count == ids.length ? ids : Arrays.copyOf(ids, count);
+    }
+
+    private static long[] sorted(long[] ids) {
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
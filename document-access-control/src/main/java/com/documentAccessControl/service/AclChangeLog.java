@@ -0,0 +1,174 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.AclChangeDto;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.AclChangeType;
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentPermission;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.exception.AccessDeniedException;
+import com.documentAccessControl.exception.AclChangesCompactedException;
+import com.documentAccessControl.repository.AclChangeRepository;
+import com.documentAccessControl.repository.AclChangeRepository.Change;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versioned feed of ACL mutations for downstream mirrors. Changes are buffered per transaction and appended in
+ * one batch just before commit, so a version becomes visible almost as soon as it is assigned; readers still stop
+ * at the first change younger than the settle window, which covers transactions that commit out of version order.
+ * Disabled by default like the other optional components.
+ */
+@Component
+public class AclChangeLog {
+    private static final String ADMIN_USER = "admin";
+    private static final int MAX_CHANGES = 10000;
+
+    private final AclChangeRepository aclChangeRepository;
+    private final UserDictionary userDictionary;
+    private final boolean enabled;
+    private final long retention;
+    private final long compactionInterval;
+    private final Duration settle;
+    private final AtomicLong appended = new AtomicLong();
+
+    public AclChangeLog(AclChangeRepository aclChangeRepository, UserDictionary userDictionary,
+                        @Value("${document.acl-changes.enabled:false}") boolean enabled,
+                        @Value("${document.acl-changes.retention:100000}") long retention,
+                        @Value("${document.acl-changes.compaction-interval:1000}") long compactionInterval,
+                        @Value("${document.acl-changes.settle:1s}") Duration settle) {
+        this.aclChangeRepository = aclChangeRepository;
+        this.userDictionary = userDictionary;
+        this.enabled = enabled;
+        this.retention = retention;
+        this.compactionInterval = compactionInterval;
+        this.settle = settle;
+    }
+
+    // lets callers skip the lookups they would only need to describe a change
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void documentCreated(Document document) {
+        if (!enabled) {
+            return;
+        }
+        append(new Change(document.getId(), AclChangeType.CREATED, document.getOwnerId(), null));
+        for (DocumentPermission permission : document.getPermissions()) {
+            for (Permission granted : permission.getGrantedPermissions()) {
+                append(new Change(document.getId(), AclChangeType.GRANTED, permission.getUserId(), granted));
+            }
+        }
+    }
+
+    public void permissionGranted(Long documentId, int userId, Permission permission) {
+        if (enabled) {
+            append(new Change(documentId, AclChangeType.GRANTED, userId, permission));
+        }
+    }
+
+    public void permissionRevoked(Long documentId, int userId, Permission permission) {
+        if (enabled) {
+            append(new Change(documentId, AclChangeType.REVOKED, userId, permission));
+        }
+    }
+
+    public void documentDeleted(Long documentId) {
+        if (enabled) {
+            append(new Change(documentId, AclChangeType.DELETED, null, null));
+        }
+    }
+
+    /**
+     * Changes after {@code since} in version order, up to the first one still inside the settle window.
+     */
+    public List<AclChangeDto> changesSince(CurrentUser user, long since, int limit) {
+        if (!ADMIN_USER.equalsIgnoreCase(user.username())) {
+            throw new AccessDeniedException("Only Admin user can read ACL changes");
+        }
+        if (!enabled) {
+            throw new IllegalArgumentException("ACL change feed is not enabled");
+        }
+        if (since < 0) {
+            throw new IllegalArgumentException("since must not be negative");
+        }
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_CHANGES);
+        }
+        Long oldest = aclChangeRepository.findOldestVersion();
+        if (oldest != null && since < oldest - 1) {
+            throw new AclChangesCompactedException("Changes after version " + since + " have been compacted, resync from an export");
+        }
+
+        LocalDateTime settledBefore = LocalDateTime.now().minus(settle);
+        List<AclChangeDto> changes = new ArrayList<>();
+        for (Change change : aclChangeRepository.findChangesAfter(since, limit)) {
+            if (change.createdAt().isAfter(settledBefore)) {
+                break;
+            }
+            changes.add(new AclChangeDto(change.version(), change.documentId(), change.type(),
+                    change.userId() == null ? null : userDictionary.usernameOf(change.userId()), change.permission()));
+        }
+        return changes;
+    }
+
+    /**
+     * Version a consumer can resume from after a full resync; read it before taking the snapshot.
+     */
+    public long currentVersion() {
+        if (!enabled) {
+            return 0;
+        }
+        Long latest = aclChangeRepository.findLatestVersion();
+        return latest == null ? 0 : latest;
+    }
+
+    private void append(Change change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(List.of(change));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Change> pending = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Change> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    write(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AclChangeLog.this);
+                }
+            });
+            pending = changes;
+        }
+        pending.add(change);
+    }
+
+    private void write(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        aclChangeRepository.append(changes, LocalDateTime.now());
+        long total = appended.addAndGet(changes.size());
+        if (total / compactionInterval != (total - changes.size()) / compactionInterval) {
+            Long latest = aclChangeRepository.findLatestVersion();
+            if (latest != null && latest > retention) {
+                aclChangeRepository.deleteUpTo(latest - retention);
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentPermission;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.repository.DocumentRepository;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process ACL index holding compressed bitmaps of document ids per owner and per (user id, permission).
+ * Lookups probe the bitmaps id by id: unlike Roaring64Bitmap, Roaring64NavigableMap does not allocate per probe.
+ * Only valid when this instance is the sole writer of the documents tables, hence disabled by default.
+ */
+@Component
+public class DocumentAclIndex {
+
+    private final DocumentRepository documentRepository;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Roaring64NavigableMap allDocuments = new Roaring64NavigableMap();
+    private final Map<Integer, Roaring64NavigableMap> ownedDocuments = new HashMap<>();
+    private final Map<Integer, Map<Permission, Roaring64NavigableMap>> grantedDocuments = new HashMap<>();
+    private volatile boolean ready;
+
+    public DocumentAclIndex(DocumentRepository documentRepository,
+                            @Value("${document.acl-index.enabled:false}") boolean enabled) {
+        this.documentRepository = documentRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : documentRepository.findAllDocumentOwners()) {
+                addOwner((Long) row[0], (Integer) row[1]);
+            }
+            for (Object[] row : documentRepository.findAllPermissionEntries()) {
+                for (Permission permission : Permission.fromMask((Integer) row[2])) {
+                    addGrant((Long) row[0], (Integer) row[1], permission);
+                }
+            }
+            for (Object[] row : documentRepository.findAllGroupMemberPermissionEntries()) {
+                for (Permission permission : Permission.fromMask((Integer) row[2])) {
+                    addGrant((Long) row[0], (Integer) row[1], permission);
+                }
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void documentCreated(Document document) {
+        if (!enabled) {
+            return;
+        }
+        Long id = document.getId();
+        int ownerId = document.getOwnerId();
+        List<Grant> grants = grantsOf(document);
+        afterCommit(() -> {
+            addOwner(id, ownerId);
+            for (Grant grant : grants) {
+                addGrant(id, grant.userId(), grant.permission());
+            }
+        });
+    }
+
+    public void permissionGranted(Long documentId, int userId, Permission permission) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> addGrant(documentId, userId, permission));
+    }
+
+    public void permissionRevoked(Long documentId, int userId, Permission permission) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> removeGrant(documentId, userId, permission));
+    }
+
+    public void documentDeleted(Document document) {
+        if (!enabled) {
+            return;
+        }
+        long id = document.getId();
+        int ownerId = document.getOwnerId();
+        List<Grant> grants = grantsOf(document);
+        afterCommit(() -> {
+            allDocuments.removeLong(id);
+            Roaring64NavigableMap owned = ownedDocuments.get(ownerId);
+            if (owned != null) {
+                owned.removeLong(id);
+            }
+            for (Grant grant : grants) {
+                removeGrant(id, grant.userId(), grant.permission());
+            }
+        });
+    }
+
+    /**
+     * @return the ids of {@code documentIds} that exist, in the given order; {@code documentIds} itself when all do
+     */
+    public long[] findExistingDocumentIds(long[] documentIds) {
+        long[] existing = null;
+        int count = 0;
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < documentIds.length; i++) {
+                if (allDocuments.contains(documentIds[i])) {
+                    if (existing != null) {
+                        existing[count] = documentIds[i];
+                    }
+                    count++;
+                } else if (existing == null) {
+                    existing = Arrays.copyOf(documentIds, documentIds.length);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return existing == null ? documentIds : Arrays.copyOf(existing, count);
+    }
+
+    /**
+     * @return the ids of {@code documentIds} the user owns or holds an effective grant on, in the given order;
+     * {@code documentIds} itself when all are accessible
+     */
+    public long[] findAccessibleDocumentIds(int userId, Permission permission, long[] documentIds) {
+        long[] accessible = null;
+        int count = 0;
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap owned = ownedDocuments.get(userId);
+            Map<Permission, Roaring64NavigableMap> grants = grantedDocuments.get(userId);
+            Roaring64NavigableMap granted = grants == null ? null : grants.get(permission);
+            for (int i = 0; i < documentIds.length; i++) {
+                long id = documentIds[i];
+                // group-derived grants are not dropped per member when a document is deleted
+                boolean allowed = allDocuments.contains(id)
+                        && (owned != null && owned.contains(id) || granted != null && granted.contains(id));
+                if (allowed) {
+                    if (accessible != null) {
+                        accessible[count] = id;
+                    }
+                    count++;
+                } else if (accessible == null) {
+                    accessible = Arrays.copyOf(documentIds, documentIds.length);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return accessible == null ? documentIds : Arrays.copyOf(accessible, count);
+    }
+
+    // applied once the transaction commits, so a rollback cannot leave phantom entries behind
+    private void afterCommit(Runnable mutation) {
+        Runnable locked = () -> {
+            lock.writeLock().lock();
+            try {
+                mutation.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked.run();
+                }
+            });
+        } else {
+            locked.run();
+        }
+    }
+
+    // read now: the entity may be changed or detached by the time the transaction commits
+    private static List<Grant> grantsOf(Document document) {
+        List<Grant> grants = new ArrayList<>();
+        for (DocumentPermission documentPermission : document.getPermissions()) {
+            for (Permission permission : documentPermission.getGrantedPermissions()) {
+                grants.add(new Grant(documentPermission.getUserId(), permission));
+            }
+        }
+        return grants;
+    }
+
+    private void addOwner(Long documentId, int userId) {
+        allDocuments.addLong(documentId);
+        ownedDocuments.computeIfAbsent(userId, u -> new Roaring64NavigableMap()).addLong(documentId);
+    }
+
+    private void addGrant(Long documentId, int userId, Permission permission) {
+        grantedDocuments.computeIfAbsent(userId, u -> new EnumMap<>(Permission.class))
+                .computeIfAbsent(permission, p -> new Roaring64NavigableMap())
+                .addLong(documentId);
+    }
+
+    private void removeGrant(long documentId, int userId, Permission permission) {
+        Map<Permission, Roaring64NavigableMap> granted = grantedDocuments.get(userId);
+        if (granted != null && granted.containsKey(permission)) {
+            granted.get(permission).removeLong(documentId);
+        }
+    }
+
+    private record Grant(int userId, Permission permission) {
+    }
+}
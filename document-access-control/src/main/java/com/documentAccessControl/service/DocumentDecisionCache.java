@@ -0,0 +1,107 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.entity.Permission;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of allow/deny decisions per (user id, documentId, permission), denials included.
+ * Like {@link DocumentAclIndex} it relies on this instance seeing every ACL change, hence disabled by default.
+ */
+@Component
+public class DocumentDecisionCache {
+
+    private final Cache<DecisionKey, Boolean> decisions;
+    private final AtomicLong epoch = new AtomicLong();
+
+    public DocumentDecisionCache(@Value("${document.decision-cache.enabled:false}") boolean enabled,
+                                 @Value("${document.decision-cache.maximum-size:100000}") long maximumSize,
+                                 MeterRegistry meterRegistry) {
+        if (enabled) {
+            decisions = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+            CaffeineCacheMetrics.monitor(meterRegistry, decisions, "document.decisions");
+        } else {
+            decisions = null;
+        }
+    }
+
+    public Boolean get(int userId, Long documentId, Permission permission) {
+        return decisions == null ? null : decisions.getIfPresent(new DecisionKey(userId, documentId, permission));
+    }
+
+    /**
+     * Read before loading the ACL a decision is computed from, and pass it back to {@link #put}.
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    public void put(int userId, Long documentId, Permission permission, boolean allowed, long loadedAtEpoch) {
+        if (decisions == null) {
+            return;
+        }
+        DecisionKey key = new DecisionKey(userId, documentId, permission);
+        decisions.put(key, allowed);
+        // an invalidation may have run between loading the ACL and storing its decision
+        if (epoch.get() != loadedAtEpoch) {
+            decisions.invalidate(key);
+        }
+    }
+
+    public void permissionChanged(Long documentId, int userId, Permission permission) {
+        if (decisions != null) {
+            afterCommit(() -> decisions.invalidate(new DecisionKey(userId, documentId, permission)));
+        }
+    }
+
+    public void documentDeleted(Long documentId) {
+        if (decisions != null) {
+            afterCommit(() -> decisions.asMap().keySet().removeIf(key -> key.documentId().equals(documentId)));
+        }
+    }
+
+    // a folder grant reaches every document below the folder, which the cache cannot enumerate
+    public void folderPermissionChanged(int userId, Permission permission) {
+        if (decisions != null) {
+            afterCommit(() -> decisions.asMap().keySet()
+                    .removeIf(key -> key.userId() == userId && key.permission() == permission));
+        }
+    }
+
+    public void folderMoved() {
+        if (decisions != null) {
+            afterCommit(decisions::invalidateAll);
+        }
+    }
+
+    public CacheStats stats() {
+        return decisions == null ? CacheStats.empty() : decisions.stats();
+    }
+
+    private void afterCommit(Runnable invalidation) {
+        epoch.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    epoch.incrementAndGet();
+                    invalidation.run();
+                }
+            });
+        } else {
+            invalidation.run();
+        }
+    }
+
+    private record DecisionKey(int userId, Long documentId, Permission permission) {
+    }
+}
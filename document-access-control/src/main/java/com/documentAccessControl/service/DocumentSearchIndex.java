@@ -0,0 +1,267 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.DocumentDto;
+import com.documentAccessControl.dto.SearchHitDto;
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.storage.ContentStore;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-process inverted index over document names and contents, ranked with BM25. Matches are scored in memory first and
+ * then narrowed to the caller's allowed set in rank order, stopping once the page is full, so a common word costs a
+ * few ACL lookups rather than one per matching document. Like {@link DocumentAclIndex} it is only valid when this
+ * instance is the sole writer and only sees committed changes, hence disabled by default.
+ */
+@Component
+public class DocumentSearchIndex {
+    private static final int LOAD_BATCH_SIZE = 500;
+    private static final int FILTER_CHUNK_SIZE = 1000;
+    // only this many of the best-ranked matches are ever offered to the ACL filter
+    private static final int MAX_RANKED_CANDIDATES = 10000;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 64;
+    // a term in the name counts as much as this many occurrences in the content
+    private static final int NAME_WEIGHT = 3;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Comparator<SearchHitDto> RANKING = Comparator.comparingDouble(SearchHitDto::getScore).reversed()
+            .thenComparing(SearchHitDto::getId);
+
+    private final DocumentRepository documentRepository;
+    private final ContentStore contentStore;
+    private final boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Roaring64NavigableMap> postings = new HashMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private long totalLength;
+    private volatile boolean ready;
+
+    public DocumentSearchIndex(DocumentRepository documentRepository, ContentStore contentStore,
+                               @Value("${document.search-index.enabled:false}") boolean enabled) {
+        this.documentRepository = documentRepository;
+        this.contentStore = contentStore;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            long cursor = 0;
+            List<DocumentDto> batch;
+            do {
+                batch = documentRepository.findDocumentSummariesAfter(cursor, PageRequest.ofSize(LOAD_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<Long> ids = batch.stream().map(DocumentDto::getId).toList();
+                Map<Long, String> contents = contentStore.readAll(ids);
+                for (DocumentDto document : batch) {
+                    add(document.getId(), document.getName(), document.getFileType(), contents.get(document.getId()));
+                }
+                cursor = ids.get(ids.size() - 1);
+            } while (batch.size() == LOAD_BATCH_SIZE);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void documentCreated(Document document, String content) {
+        if (!enabled) {
+            return;
+        }
+        Long id = document.getId();
+        String name = document.getName();
+        String fileType = document.getFileType();
+        afterCommit(() -> add(id, name, fileType, content));
+    }
+
+    public void documentDeleted(Long documentId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            IndexedDocument removed = documents.remove(documentId);
+            if (removed == null) {
+                return;
+            }
+            totalLength -= removed.length();
+            for (String term : removed.frequencies().keySet()) {
+                Roaring64NavigableMap posting = postings.get(term);
+                posting.removeLong(documentId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        });
+    }
+
+    /**
+     * @param allowed keeps the ids the caller may see; called with chunks of matching ids, best ranked first, until
+     *                {@code limit} of them were kept
+     * @return the best {@code limit} allowed documents matching any query term, best first
+     */
+    public List<SearchHitDto> search(String query, int limit, UnaryOperator<long[]> allowed) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+
+        PriorityQueue<SearchHitDto> best = new PriorityQueue<>(RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            Roaring64NavigableMap matching = new Roaring64NavigableMap();
+            double averageLength = documents.isEmpty() ? 0 : (double) totalLength / documents.size();
+            Map<String, Double> idf = new HashMap<>();
+            for (String term : terms) {
+                Roaring64NavigableMap posting = postings.get(term);
+                long documentFrequency = 0;
+                if (posting != null) {
+                    matching.or(posting);
+                    documentFrequency = posting.getLongCardinality();
+                }
+                idf.put(term, Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5)));
+            }
+            LongIterator ids = matching.getLongIterator();
+            while (ids.hasNext()) {
+                long id = ids.next();
+                IndexedDocument document = documents.get(id);
+                best.add(new SearchHitDto(id, document.name(), document.fileType(), score(document, terms, idf, averageLength)));
+                if (best.size() > MAX_RANKED_CANDIDATES) {
+                    best.poll();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<SearchHitDto> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+
+        // the allowed set may need the database, so it is resolved outside the lock
+        List<SearchHitDto> hits = new ArrayList<>(limit);
+        for (int from = 0; from < ranked.size() && hits.size() < limit; from += FILTER_CHUNK_SIZE) {
+            List<SearchHitDto> chunk = ranked.subList(from, Math.min(from + FILTER_CHUNK_SIZE, ranked.size()));
+            long[] accepted = allowed.apply(chunk.stream().mapToLong(SearchHitDto::getId).toArray());
+            Arrays.sort(accepted);
+            for (SearchHitDto hit : chunk) {
+                if (Arrays.binarySearch(accepted, hit.getId()) >= 0) {
+                    hits.add(hit);
+                    if (hits.size() == limit) {
+                        break;
+                    }
+                }
+            }
+        }
+        return hits;
+    }
+
+    private double score(IndexedDocument document, Set<String> terms, Map<String, Double> idf, double averageLength) {
+        double score = 0;
+        double lengthNorm = K1 * (1 - B + B * document.length() / averageLength);
+        for (String term : terms) {
+            Integer frequency = document.frequencies().get(term);
+            if (frequency != null) {
+                score += idf.get(term) * frequency * (K1 + 1) / (frequency + lengthNorm);
+            }
+        }
+        return score;
+    }
+
+    // applied once the transaction commits, so a rolled back create or delete never shows up in results
+    private void afterCommit(Runnable mutation) {
+        Runnable locked = () -> {
+            lock.writeLock().lock();
+            try {
+                mutation.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked.run();
+                }
+            });
+        } else {
+            locked.run();
+        }
+    }
+
+    private void add(Long documentId, String name, String fileType, String content) {
+        if (documents.containsKey(documentId)) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(name)) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(content)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        documents.put(documentId, new IndexedDocument(name, fileType, frequencies, length));
+        totalLength += length;
+        for (String term : frequencies.keySet()) {
+            // no cardinality cache: filling it from getLongCardinality would write under the read lock
+            postings.computeIfAbsent(term, t -> new Roaring64NavigableMap(false, false)).addLong(documentId);
+        }
+    }
+
+    // lower-cased runs of letters and digits; anything else separates terms
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH && i - start <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase());
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private record IndexedDocument(String name, String fileType, Map<String, Integer> frequencies, int length) {
+    }
+}
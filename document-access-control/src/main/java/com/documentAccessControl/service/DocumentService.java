@@ -2,53 +2,166 @@ package com.documentAccessControl.service;
 
 import com.documentAccessControl.dto.*;
 import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentEffectivePermission;
+import com.documentAccessControl.entity.DocumentEffectivePermissionId;
 import com.documentAccessControl.entity.DocumentPermission;
 import com.documentAccessControl.entity.Permission;
 import com.documentAccessControl.exception.AccessDeniedException;
 import com.documentAccessControl.exception.DocumentNotFoundException;
+import com.documentAccessControl.metrics.DocumentMetrics;
+import com.documentAccessControl.repository.DocumentEffectivePermissionRepository;
+import com.documentAccessControl.repository.DocumentExportRepository;
+import com.documentAccessControl.repository.DocumentPermissionBatchRepository;
+import com.documentAccessControl.repository.DocumentPermissionBatchRepository.Grant;
+import com.documentAccessControl.repository.DocumentPermissionRepository;
 import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.storage.ByteArrayStoredContent;
+import com.documentAccessControl.storage.ContentStore;
+import com.documentAccessControl.storage.StoredContent;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "document.service", histogram = true)
 public class DocumentService {
     private static final String ADMIN_USER = "admin";
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BULK_GRANTS = 10000;
+    private static final int MAX_BATCH_DOCUMENTS = 5000;
+    private static final int MAX_SEARCH_RESULTS = 100;
 
     private final DocumentRepository documentRepository;
-
-    public DocumentService(DocumentRepository documentRepository) {
+    private final ContentStore contentStore;
+    private final DocumentExportRepository documentExportRepository;
+    private final DocumentPermissionRepository documentPermissionRepository;
+    private final DocumentPermissionBatchRepository documentPermissionBatchRepository;
+    private final DocumentEffectivePermissionRepository documentEffectivePermissionRepository;
+    private final DocumentAclIndex documentAclIndex;
+    private final DocumentDecisionCache documentDecisionCache;
+    private final AccessCheckBatcher accessCheckBatcher;
+    private final AccessCheckExecutor accessCheckExecutor;
+    private final UserDictionary userDictionary;
+    private final GroupService groupService;
+    private final FolderService folderService;
+    private final AclChangeLog aclChangeLog;
+    private final DocumentSearchIndex documentSearchIndex;
+    private final DocumentMetrics documentMetrics;
+
+    public DocumentService(DocumentRepository documentRepository, ContentStore contentStore,
+                           DocumentExportRepository documentExportRepository,
+                           DocumentPermissionRepository documentPermissionRepository,
+                           DocumentPermissionBatchRepository documentPermissionBatchRepository,
+                           DocumentEffectivePermissionRepository documentEffectivePermissionRepository,
+                           DocumentAclIndex documentAclIndex, DocumentDecisionCache documentDecisionCache,
+                           AccessCheckBatcher accessCheckBatcher, AccessCheckExecutor accessCheckExecutor,
+                           UserDictionary userDictionary, GroupService groupService, FolderService folderService,
+                           AclChangeLog aclChangeLog, DocumentSearchIndex documentSearchIndex,
+                           DocumentMetrics documentMetrics) {
         this.documentRepository = documentRepository;
+        this.contentStore = contentStore;
+        this.documentExportRepository = documentExportRepository;
+        this.documentPermissionRepository = documentPermissionRepository;
+        this.documentPermissionBatchRepository = documentPermissionBatchRepository;
+        this.documentEffectivePermissionRepository = documentEffectivePermissionRepository;
+        this.documentAclIndex = documentAclIndex;
+        this.documentDecisionCache = documentDecisionCache;
+        this.accessCheckBatcher = accessCheckBatcher;
+        this.accessCheckExecutor = accessCheckExecutor;
+        this.userDictionary = userDictionary;
+        this.groupService = groupService;
+        this.folderService = folderService;
+        this.aclChangeLog = aclChangeLog;
+        this.documentSearchIndex = documentSearchIndex;
+        this.documentMetrics = documentMetrics;
     }
 
-    public DocumentDto createDocument(String username, CreateDocumentRequest request){
-        if(!ADMIN_USER.equalsIgnoreCase(username)){
+    @Transactional
+    public DocumentDto createDocument(CurrentUser user, CreateDocumentRequest request){
+        if(!isAdmin(user)){
             throw new AccessDeniedException("Only Admin user can create documents");
         }
+        if(request.getFolderId() != null){
+            folderService.requireFolderExists(request.getFolderId());
+        }
 
-        Document document = new Document(request.getName(), request.getContent(), request.getFileType(), username);
+        Document savedDocument = documentRepository.save(requestToDocument(user, request));
+        documentEffectivePermissionRepository.saveAll(effectivePermissionsOf(savedDocument));
+        if(request.getContent() != null){
+            contentStore.write(savedDocument, request.getContent());
+        }
+        documentAclIndex.documentCreated(savedDocument);
+        aclChangeLog.documentCreated(savedDocument);
+        documentSearchIndex.documentCreated(savedDocument, request.getContent());
 
-        if(request.getAccessibleUsers() != null){
-            for (UserPermissionDto userPermissionDto : request.getAccessibleUsers()){
-                DocumentPermission documentPermission = new DocumentPermission(userPermissionDto.getUsername(), userPermissionDto.getPermission());
-                document.addPermission(documentPermission);
-            }
+        DocumentDto documentDto = documentBeanToDto(savedDocument);
+        documentDto.setContent(request.getContent());
+        return documentDto;
+    }
+
+    @Transactional
+    public List<DocumentDto> createDocuments(CurrentUser user, BulkCreateDocumentRequest request){
+        if(!isAdmin(user)){
+            throw new AccessDeniedException("Only Admin user can create documents");
+        }
+        if(request.getDocuments().size() > MAX_BATCH_DOCUMENTS){
+            throw new IllegalArgumentException("At most " + MAX_BATCH_DOCUMENTS + " documents can be created in one request");
+        }
+        request.getDocuments().stream()
+                .map(CreateDocumentRequest::getFolderId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(folderService::requireFolderExists);
+
+        List<Document> documents = new ArrayList<>(request.getDocuments().size());
+        for (CreateDocumentRequest documentRequest : request.getDocuments()){
+            documents.add(requestToDocument(user, documentRequest));
         }
 
-        Document savedDocument = documentRepository.save(document);
-        return documentBeanToDto(savedDocument);
+        List<Document> savedDocuments = documentRepository.saveAll(documents);
+        List<DocumentEffectivePermission> effectivePermissions = new ArrayList<>();
+        for (Document savedDocument : savedDocuments){
+            effectivePermissions.addAll(effectivePermissionsOf(savedDocument));
+        }
+        documentEffectivePermissionRepository.saveAll(effectivePermissions);
+
+        List<DocumentDto> documentDtos = new ArrayList<>(savedDocuments.size());
+        for (int i = 0; i < savedDocuments.size(); i++){
+            Document savedDocument = savedDocuments.get(i);
+            String content = request.getDocuments().get(i).getContent();
+            if(content != null){
+                contentStore.write(savedDocument, content);
+            }
+            documentAclIndex.documentCreated(savedDocument);
+            aclChangeLog.documentCreated(savedDocument);
+            documentSearchIndex.documentCreated(savedDocument, content);
+            documentDtos.add(documentBeanToDto(savedDocument));
+        }
+        return documentDtos;
     }
 
     @Transactional(readOnly = true)
-    public List<DocumentDto> getListOfAccessibleDocuments(String username){
+    public List<DocumentDto> getListOfAccessibleDocuments(CurrentUser user){
         List<Document> documents;
 
-        if(ADMIN_USER.equalsIgnoreCase(username)){
+        if(isAdmin(user)){
             documents = documentRepository.findAll();
         } else {
-            documents = documentRepository.findDocumentsWithPermission(username, Permission.READ);
+            documents = documentRepository.findDocumentsWithPermission(user.id(), Permission.READ);
         }
 
         return documents.stream()
@@ -57,100 +170,431 @@ public class DocumentService {
     }
 
     @Transactional(readOnly = true)
-    public DocumentDto getDocumentById(String username, Long id){
-        Document document = documentRepository.findById(id).orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+    public DocumentPageDto getPageOfAccessibleDocuments(CurrentUser user, Long after, int limit,
+                                                        boolean includeContent, boolean includePermissions){
+        if(limit < 1 || limit > MAX_PAGE_SIZE){
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Long cursor = after == null ? 0L : after;
+        PageRequest pageRequest = PageRequest.ofSize(limit + 1);
+        List<DocumentDto> documents;
+
+        if(isAdmin(user)){
+            documents = documentRepository.findDocumentSummariesAfter(cursor, pageRequest);
+        } else {
+            // two keyset-ordered index ranges merged here instead of one query ordering their union
+            documents = mergeById(
+                    documentRepository.findDocumentSummariesWithPermissionAfter(user.id(), Permission.READ, cursor, pageRequest),
+                    documentRepository.findFolderDocumentSummariesWithPermissionAfter(user.id(), Permission.READ, cursor, pageRequest),
+                    limit + 1);
+        }
 
-        if(!hasPermission(username, document, Permission.READ)){
-            throw new AccessDeniedException("You don't have READ permission for this document");
+        Long nextCursor = null;
+        if(documents.size() > limit){
+            documents = new ArrayList<>(documents.subList(0, limit));
+            nextCursor = documents.get(limit - 1).getId();
         }
 
-        return documentBeanToDto(document);
+        if(!documents.isEmpty() && (includeContent || includePermissions)){
+            Map<Long, DocumentDto> documentsById = new HashMap<>();
+            documents.forEach(d -> documentsById.put(d.getId(), d));
+            List<Long> documentIds = new ArrayList<>(documentsById.keySet());
+
+            if(includeContent){
+                contentStore.readAll(documentIds).forEach((documentId, content) -> documentsById.get(documentId).setContent(content));
+            }
+            if(includePermissions){
+                documents.forEach(d -> d.setAccessibleUsers(new ArrayList<>()));
+                for (Object[] row : documentRepository.findPermissionEntriesByDocumentIds(documentIds)){
+                    for (Permission permission : Permission.fromMask((Integer) row[2])){
+                        documentsById.get((Long) row[0]).getAccessibleUsers()
+                                .add(new UserPermissionDto(userDictionary.usernameOf((Integer) row[1]), permission));
+                    }
+                }
+            }
+        }
+
+        return new DocumentPageDto(documents, nextCursor);
     }
 
-    public void deleteDocument(String username, Long id){
-        Document document = documentRepository.findById(id).orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+    public void exportAccessibleDocuments(CurrentUser user, Consumer<DocumentDto> consumer){
+        if(!contentStore.storesContentInDatabase()){
+            Consumer<DocumentDto> target = consumer;
+            consumer = documentDto -> {
+                documentDto.setContent(contentStore.read(documentDto.getId()));
+                target.accept(documentDto);
+            };
+        }
 
-        if(!hasPermission(username, document, Permission.DELETE)){
-            throw new AccessDeniedException("You don't have DELETE permission for this document");
+        if(isAdmin(user)){
+            documentExportRepository.streamAllDocuments(consumer);
+        } else {
+            documentExportRepository.streamDocumentsWithPermission(user.id(), Permission.READ, consumer);
         }
+    }
+
+    @Transactional(readOnly = true)
+    public ListFingerprint getListFingerprint(CurrentUser user){
+        if(isAdmin(user)){
+            return documentRepository.findListFingerprint();
+        }
+        return documentRepository.findListFingerprintWithPermission(user.id(), Permission.READ);
+    }
+
+    // authorization plus the revision only, so an unchanged document is never loaded or serialized
+    @Transactional(readOnly = true)
+    public long getDocumentRevision(CurrentUser user, Long id){
+        checkPermission(user, id, Permission.READ, "You don't have READ permission for this document");
+        return documentRepository.findRevisionById(id).orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+    }
+
+    @Transactional(readOnly = true)
+    public DocumentDto getDocumentById(CurrentUser user, Long id){
+        Document document = findDocumentWithPermission(user, id, Permission.READ,
+                "You don't have READ permission for this document");
+
+        DocumentDto documentDto = documentBeanToDto(document);
+        documentDto.setContent(contentStore.read(id));
+        return documentDto;
+    }
+
+    @Transactional(readOnly = true)
+    public StoredContent openDocumentContent(CurrentUser user, Long id){
+        checkPermission(user, id, Permission.READ, "You don't have READ permission for this document");
+
+        StoredContent content = contentStore.open(id);
+        return content == null ? ByteArrayStoredContent.EMPTY : content;
+    }
+
+    // one transaction for the row and its change-log entry; the indexes, cache and content file follow on commit
+    @Transactional
+    public void deleteDocument(CurrentUser user, Long id){
+        Document document = findDocumentWithPermission(user, id, Permission.DELETE,
+                "You don't have DELETE permission for this document");
 
         documentRepository.delete(document);
+        contentStore.delete(id);
+        documentAclIndex.documentDeleted(document);
+        aclChangeLog.documentDeleted(id);
+        documentDecisionCache.documentDeleted(id);
+        documentSearchIndex.documentDeleted(id);
     }
 
-    public DocumentDto grantPermission(String username, Long id, GrantPermissionRequest request) {
-        Document document = documentRepository.findById(id).orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+    @Transactional
+    public DocumentDto grantPermission(CurrentUser user, Long id, GrantPermissionRequest request) {
+        boolean toGroup = hasText(request.getGroup());
+        if (toGroup == hasText(request.getUsername())) {
+            throw new IllegalArgumentException("Exactly one of username or group is required");
+        }
+        Document document = findDocumentWithPermission(user, id, Permission.WRITE,
+                "You don't have a permission to grant access to this document");
 
-        if (!canGrantPermission(username, document)) {
-            throw new AccessDeniedException("You don't have a permission to grant access to this document");
+        if (toGroup) {
+            if (!groupService.grantToGroup(document, request.getGroup(), request.getPermission())) {
+                return documentBeanToDto(document);
+            }
+        } else {
+            int granteeId = userDictionary.idOf(request.getUsername());
+            if (!document.grant(granteeId, request.getPermission())) {
+                return documentBeanToDto(document);
+            }
+            documentRepository.save(document);
+            DocumentEffectivePermissionId entryId = new DocumentEffectivePermissionId(granteeId, request.getPermission(), id);
+            if (granteeId != document.getOwnerId() && !documentEffectivePermissionRepository.existsById(entryId)) {
+                documentEffectivePermissionRepository.save(
+                        new DocumentEffectivePermission(document, granteeId, request.getPermission()));
+            }
+            documentAclIndex.permissionGranted(id, granteeId, request.getPermission());
+            aclChangeLog.permissionGranted(id, granteeId, request.getPermission());
+            documentDecisionCache.permissionChanged(id, granteeId, request.getPermission());
         }
 
-        boolean permissionExists = document.getPermissions().stream()
-                .anyMatch(p -> p.getUsername().equals(request.getUsername())
-                        && p.getPermission() == request.getPermission());
+        documentRepository.incrementRevisions(List.of(id));
+        // re-read rather than add one to the loaded value: a concurrent grant may have bumped it as well, and the
+        // row lock taken by the UPDATE keeps it from moving again before this transaction commits
+        DocumentDto documentDto = documentBeanToDto(document);
+        documentDto.setRevision(documentRepository.findRevisionById(id)
+                .orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id)));
+        return documentDto;
+    }
+
+    @Transactional
+    public BulkGrantResponse bulkGrantPermissions(CurrentUser user, BulkGrantRequest request) {
+        List<BulkGrantItem> grants = request.getGrants();
+        if (grants.size() > MAX_BULK_GRANTS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_GRANTS + " grants can be sent in one request");
+        }
 
-        if (!permissionExists) {
-            DocumentPermission newPermission = new DocumentPermission(
-                    request.getUsername(),
-                    request.getPermission()
-            );
-            document.addPermission(newPermission);
-            documentRepository.save(document);
+        Set<Long> documentIds = new LinkedHashSet<>();
+        Map<String, Integer> granteeIds = new HashMap<>();
+        for (BulkGrantItem grant : grants) {
+            documentIds.add(grant.getDocumentId());
+            granteeIds.computeIfAbsent(grant.getUsername(), userDictionary::idOf);
         }
 
-        return documentBeanToDto(document);
+        Map<Long, Integer> owners = new HashMap<>();
+        for (Object[] row : documentRepository.findDocumentOwners(documentIds)) {
+            owners.put((Long) row[0], (Integer) row[1]);
+        }
+        Set<Long> existingIds = owners.keySet();
+        Set<Long> grantableIds = existingIds;
+        if (!existingIds.isEmpty() && !isAdmin(user)) {
+            grantableIds = new HashSet<>(documentRepository.findAccessibleDocumentIds(user.id(), Permission.WRITE, existingIds));
+        }
 
+        Map<GrantKey, Integer> masks = new HashMap<>();
+        if (!grantableIds.isEmpty()) {
+            for (DocumentPermission permission : documentPermissionRepository.findByDocumentIdsAndUserIds(grantableIds,
+                    new HashSet<>(granteeIds.values()))) {
+                masks.put(new GrantKey(permission.getDocument().getId(), permission.getUserId()), permission.getPermissionMask());
+            }
+        }
+
+        List<BulkGrantResult> results = new ArrayList<>(grants.size());
+        List<Grant> newGrants = new ArrayList<>();
+        List<Grant> newEffectivePermissions = new ArrayList<>();
+        for (BulkGrantItem grant : grants) {
+            BulkGrantResult.Status status;
+            if (!existingIds.contains(grant.getDocumentId())) {
+                status = BulkGrantResult.Status.DOCUMENT_NOT_FOUND;
+            } else if (!grantableIds.contains(grant.getDocumentId())) {
+                status = BulkGrantResult.Status.ACCESS_DENIED;
+            } else {
+                int granteeId = granteeIds.get(grant.getUsername());
+                int mask = masks.getOrDefault(new GrantKey(grant.getDocumentId(), granteeId), 0);
+                if (grant.getPermission().isGrantedBy(mask)) {
+                    status = BulkGrantResult.Status.ALREADY_GRANTED;
+                } else {
+                    masks.put(new GrantKey(grant.getDocumentId(), granteeId), mask | grant.getPermission().getMask());
+                    Grant newGrant = new Grant(grant.getDocumentId(), granteeId, grant.getPermission());
+                    newGrants.add(newGrant);
+                    if (granteeId != owners.get(grant.getDocumentId())) {
+                        newEffectivePermissions.add(newGrant);
+                    }
+                    status = BulkGrantResult.Status.GRANTED;
+                }
+            }
+            results.add(new BulkGrantResult(grant, status));
+        }
+
+        if (!newGrants.isEmpty()) {
+            // upserts, so a concurrent grant of the same (document, user) merges instead of failing the request
+            documentPermissionBatchRepository.grant(newGrants);
+            if (!newEffectivePermissions.isEmpty()) {
+                documentPermissionBatchRepository.insertEffectiveIfAbsent(newEffectivePermissions);
+            }
+            documentRepository.incrementRevisions(newGrants.stream().map(Grant::documentId).collect(Collectors.toSet()));
+            for (Grant grant : newGrants) {
+                documentAclIndex.permissionGranted(grant.documentId(), grant.userId(), grant.permission());
+                aclChangeLog.permissionGranted(grant.documentId(), grant.userId(), grant.permission());
+                documentDecisionCache.permissionChanged(grant.documentId(), grant.userId(), grant.permission());
+            }
+        }
+
+        return new BulkGrantResponse(results);
     }
 
-    @Transactional(readOnly = true)
-    public AccessCheckResponse checkAccess(String username, AccessCheckRequest request){
-        List<Long> accessibleIds;
+    // not transactional: a batched lookup may wait for its window and must not hold a connection meanwhile
+    public AccessCheckResponse checkAccess(CurrentUser user, AccessCheckRequest request){
+        documentMetrics.recordAccessCheckSize(request.getDocumentIds().length);
+        return new AccessCheckResponse(accessCheckExecutor.execute(request.getDocumentIds(), accessLookup(user, request.getPermission())));
+    }
 
-        if (ADMIN_USER.equals(username)) {
-            accessibleIds = documentRepository.findExistingDocumentIds(request.getDocumentIds());
-        } else {
-            accessibleIds = documentRepository.findAccessibleDocumentIds(username, request.getPermission(), request.getDocumentIds());
+    // not transactional for the same reason as checkAccess
+    public List<SearchHitDto> searchDocuments(CurrentUser user, String query, int limit){
+        if(!documentSearchIndex.isReady()){
+            throw new IllegalArgumentException("Document search is not enabled");
+        }
+        if(limit < 1 || limit > MAX_SEARCH_RESULTS){
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        return documentSearchIndex.search(query, limit, accessLookup(user, Permission.READ));
+    }
+
+    // keeps the ids of a chunk on which the user holds the permission
+    private UnaryOperator<long[]> accessLookup(CurrentUser user, Permission permission){
+        if (documentAclIndex.isReady()) {
+            if (ADMIN_USER.equals(user.username())) {
+                return documentAclIndex::findExistingDocumentIds;
+            }
+            return ids -> withFolderGrants(user.id(), permission, ids,
+                    documentAclIndex.findAccessibleDocumentIds(user.id(), permission, ids));
+        }
+        if (ADMIN_USER.equals(user.username())) {
+            return ids -> toArray(documentRepository.findExistingDocumentIds(toList(ids)));
+        }
+        return ids -> toArray(accessCheckBatcher.findAccessibleDocumentIds(user.id(), permission, toList(ids)));
+    }
+
+    private Document findDocumentWithPermission(CurrentUser user, Long id, Permission permission, String deniedMessage){
+        Boolean cached = documentDecisionCache.get(user.id(), id, permission);
+        if(Boolean.FALSE.equals(cached)){
+            documentMetrics.recordPermissionCheck(permission, false);
+            throw new AccessDeniedException(deniedMessage);
+        }
+
+        long epoch = documentDecisionCache.epoch();
+        Document document = documentRepository.findWithPermissionsById(id).orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+
+        if(cached != null){
+            documentMetrics.recordPermissionCheck(permission, true);
+            return document;
+        }
+        // grants held through a group exist only as effective entries, folder grants only on the folder's ancestors
+        boolean allowed = hasPermission(user, document, permission)
+                || !documentRepository.findAccessibleDocumentIds(user.id(), permission, List.of(id)).isEmpty();
+        documentMetrics.recordPermissionCheck(permission, allowed);
+        documentDecisionCache.put(user.id(), id, permission, allowed, epoch);
+        if(!allowed){
+            throw new AccessDeniedException(deniedMessage);
+        }
+        return document;
+    }
+
+    // authorization only: resolves the owner and at most one effective entry instead of loading the grants;
+    // a cached decision either way answers without touching the database, since deleting a document evicts its entries
+    private void checkPermission(CurrentUser user, Long id, Permission permission, String deniedMessage){
+        Boolean cached = documentDecisionCache.get(user.id(), id, permission);
+        if(cached != null){
+            documentMetrics.recordPermissionCheck(permission, cached);
+            if(!cached){
+                throw new AccessDeniedException(deniedMessage);
+            }
+            return;
         }
-        return new AccessCheckResponse(accessibleIds);
 
+        long epoch = documentDecisionCache.epoch();
+        int ownerId = documentRepository.findOwnerById(id).orElseThrow(() -> new DocumentNotFoundException("Document not found with id: " + id));
+        boolean allowed = isAdmin(user)
+                || ownerId == user.id()
+                || !documentRepository.findAccessibleDocumentIds(user.id(), permission, List.of(id)).isEmpty();
+        documentMetrics.recordPermissionCheck(permission, allowed);
+        documentDecisionCache.put(user.id(), id, permission, allowed, epoch);
+        if(!allowed){
+            throw new AccessDeniedException(deniedMessage);
+        }
+    }
+
+    boolean hasPermission(CurrentUser user, Document document, Permission permission){
+        return isAdmin(user)
+                || document.getOwnerId() == user.id()
+                || document.getPermissions().stream()
+                        .anyMatch(p -> p.getUserId() == user.id()
+                         && p.hasPermission(permission));
     }
 
-    private boolean hasPermission(String username, Document document, Permission permission){
-        if(ADMIN_USER.equalsIgnoreCase(username)){
-            return true;
+    // the ACL index holds effective entries only; its misses may still be granted through a folder
+    private long[] withFolderGrants(int userId, Permission permission, long[] documentIds, long[] accessibleIds){
+        if(accessibleIds.length == documentIds.length){
+            return accessibleIds;
+        }
+        // accessibleIds keeps the order of documentIds, so one pass finds the misses
+        List<Long> missing = new ArrayList<>(documentIds.length - accessibleIds.length);
+        int next = 0;
+        for (long documentId : documentIds){
+            if(next < accessibleIds.length && accessibleIds[next] == documentId){
+                next++;
+            } else {
+                missing.add(documentId);
+            }
+        }
+        List<Long> granted = documentRepository.findDocumentIdsGrantedThroughFolders(userId, permission, missing);
+        long[] result = Arrays.copyOf(accessibleIds, accessibleIds.length + granted.size());
+        for (int i = 0; i < granted.size(); i++){
+            result[accessibleIds.length + i] = granted.get(i);
         }
+        return result;
+    }
 
-        if(document.getCreatedBy().equals(username)){
-            return true;
+    // database lookups bind boxed ids; the index path above never boxes
+    private static List<Long> toList(long[] ids){
+        List<Long> list = new ArrayList<>(ids.length);
+        for (long id : ids){
+            list.add(id);
         }
+        return list;
+    }
 
-        return document.getPermissions().stream()
-                .anyMatch(p -> p.getUsername().equals(username)
-                 && p.getPermission() == permission);
+    private static long[] toArray(List<Long> ids){
+        long[] array = new long[ids.size()];
+        for (int i = 0; i < array.length; i++){
+            array[i] = ids.get(i);
+        }
+        return array;
     }
 
-    boolean canGrantPermission (String username, Document document){
-        if(ADMIN_USER.equalsIgnoreCase(username)){
-            return true;
+    private List<DocumentDto> mergeById(List<DocumentDto> first, List<DocumentDto> second, int limit){
+        List<DocumentDto> merged = new ArrayList<>(Math.min(limit, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())){
+            DocumentDto next;
+            if(j == second.size() || (i < first.size() && first.get(i).getId() <= second.get(j).getId())){
+                next = first.get(i++);
+            } else {
+                next = second.get(j++);
+            }
+            if(merged.isEmpty() || !merged.get(merged.size() - 1).getId().equals(next.getId())){
+                merged.add(next);
+            }
         }
-        if(document.getCreatedBy().equals(username)){
-            return true;
+        return merged;
+    }
+
+    private boolean hasText(String value){
+        return value != null && !value.trim().isEmpty();
+    }
+
+    private boolean isAdmin(CurrentUser user){
+        return ADMIN_USER.equalsIgnoreCase(user.username());
+    }
+
+    private Document requestToDocument(CurrentUser user, CreateDocumentRequest request){
+        Document document = new Document(request.getName(), request.getFileType(), userDictionary.registeredIdOf(user));
+        document.setFolderId(request.getFolderId());
+
+        if(request.getAccessibleUsers() != null){
+            for (UserPermissionDto userPermissionDto : request.getAccessibleUsers()){
+                document.grant(userDictionary.idOf(userPermissionDto.getUsername()), userPermissionDto.getPermission());
+            }
+        }
+        return document;
+    }
+
+    private List<DocumentEffectivePermission> effectivePermissionsOf(Document document){
+        List<DocumentEffectivePermission> effectivePermissions = new ArrayList<>();
+        for (Permission permission : Permission.values()){
+            effectivePermissions.add(new DocumentEffectivePermission(document, document.getOwnerId(), permission));
         }
-        return document.getPermissions().stream()
-                .anyMatch(p -> p.getUsername().equals(username) && p.getPermission().equals(Permission.WRITE));
+        for (DocumentPermission documentPermission : document.getPermissions()){
+            if (documentPermission.getUserId() == document.getOwnerId()){
+                continue;
+            }
+            for (Permission permission : documentPermission.getGrantedPermissions()){
+                effectivePermissions.add(new DocumentEffectivePermission(document, documentPermission.getUserId(), permission));
+            }
+        }
+        return effectivePermissions;
     }
 
-    private DocumentDto documentBeanToDto(Document document){
+    DocumentDto documentBeanToDto(Document document){
         DocumentDto documentDto = new DocumentDto();
         List<UserPermissionDto> userPermissionDtoList = document.getPermissions().stream()
-                .map(p -> new UserPermissionDto(p.getUsername(), p.getPermission()))
+                .flatMap(p -> p.getGrantedPermissions().stream()
+                        .map(permission -> new UserPermissionDto(userDictionary.usernameOf(p.getUserId()), permission)))
                 .collect(Collectors.toList());
 
         documentDto.setId(document.getId());
         documentDto.setName(document.getName());
-        documentDto.setContent(document.getContent());
         documentDto.setFileType(document.getFileType());
+        documentDto.setFolderId(document.getFolderId());
+        documentDto.setRevision(document.getRevision());
         documentDto.setAccessibleUsers(userPermissionDtoList);
 
         return documentDto;
     }
+
+    private record GrantKey(Long documentId, int userId) {
+    }
 }
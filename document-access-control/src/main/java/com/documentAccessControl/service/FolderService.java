@@ -0,0 +1,222 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.CreateFolderRequest;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.dto.FolderDto;
+import com.documentAccessControl.dto.GrantPermissionRequest;
+import com.documentAccessControl.entity.Folder;
+import com.documentAccessControl.entity.FolderClosure;
+import com.documentAccessControl.entity.FolderPermission;
+import com.documentAccessControl.entity.FolderPermissionId;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.exception.AccessDeniedException;
+import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.repository.FolderClosureRepository;
+import com.documentAccessControl.repository.FolderPermissionRepository;
+import com.documentAccessControl.repository.FolderRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Folder tree kept as a closure table: every folder has a row for each of its ancestors, itself included.
+ * Inherited grants are resolved at check time by joining a document's folder to its ancestors' grants,
+ * so nothing is copied per document and moving a subtree only rewrites the links that cross its root.
+ */
+@Service
+@Timed(value = "folder.service", histogram = true)
+public class FolderService {
+    private static final String ADMIN_USER = "admin";
+
+    private final FolderRepository folderRepository;
+    private final FolderClosureRepository folderClosureRepository;
+    private final FolderPermissionRepository folderPermissionRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentDecisionCache documentDecisionCache;
+    private final AclChangeLog aclChangeLog;
+    private final UserDictionary userDictionary;
+
+    public FolderService(FolderRepository folderRepository, FolderClosureRepository folderClosureRepository,
+                         FolderPermissionRepository folderPermissionRepository, DocumentRepository documentRepository,
+                         DocumentDecisionCache documentDecisionCache, AclChangeLog aclChangeLog,
+                         UserDictionary userDictionary) {
+        this.folderRepository = folderRepository;
+        this.folderClosureRepository = folderClosureRepository;
+        this.folderPermissionRepository = folderPermissionRepository;
+        this.documentRepository = documentRepository;
+        this.documentDecisionCache = documentDecisionCache;
+        this.aclChangeLog = aclChangeLog;
+        this.userDictionary = userDictionary;
+    }
+
+    @Transactional
+    public FolderDto createFolder(CurrentUser user, CreateFolderRequest request){
+        requireAdmin(user);
+        if(request.getParentId() != null){
+            requireFolderExists(request.getParentId());
+        }
+
+        Folder folder = folderRepository.save(new Folder(request.getName(), request.getParentId()));
+        List<FolderClosure> links = new ArrayList<>();
+        links.add(new FolderClosure(folder.getId(), folder.getId(), 0));
+        if(request.getParentId() != null){
+            for (FolderClosure ancestor : folderClosureRepository.findAncestors(request.getParentId())){
+                links.add(new FolderClosure(ancestor.getId().getAncestorId(), folder.getId(), ancestor.getDepth() + 1));
+            }
+        }
+        folderClosureRepository.saveAll(links);
+        return folderBeanToDto(folder);
+    }
+
+    @Transactional
+    public FolderDto moveFolder(CurrentUser user, Long id, Long parentId){
+        requireAdmin(user);
+        Folder folder = requireFolder(id);
+        if(Objects.equals(folder.getParentId(), parentId)){
+            return folderBeanToDto(folder);
+        }
+
+        List<FolderClosure> subtree = folderClosureRepository.findSubtree(id);
+        Set<Long> subtreeIds = subtree.stream()
+                .map(link -> link.getId().getDescendantId())
+                .collect(Collectors.toSet());
+        List<FolderClosure> ancestors = List.of();
+        if(parentId != null){
+            requireFolder(parentId);
+            if(subtreeIds.contains(parentId)){
+                throw new IllegalArgumentException("A folder cannot be moved into its own subtree");
+            }
+            ancestors = folderClosureRepository.findAncestors(parentId);
+        }
+
+        // only grants held above the subtree can change for the documents inside it
+        List<Long> documentIds = List.of();
+        Set<FolderGrant> affected = new HashSet<>();
+        Map<FolderGrant, Set<Long>> allowedBefore = Map.of();
+        if(aclChangeLog.isEnabled()){
+            documentIds = documentRepository.findIdsByFolderIds(subtreeIds);
+            Set<Long> outsideIds = new HashSet<>();
+            for (FolderClosure ancestor : folderClosureRepository.findAncestors(id)){
+                outsideIds.add(ancestor.getId().getAncestorId());
+            }
+            for (FolderClosure ancestor : ancestors){
+                outsideIds.add(ancestor.getId().getAncestorId());
+            }
+            outsideIds.removeAll(subtreeIds);
+            if(!documentIds.isEmpty() && !outsideIds.isEmpty()){
+                for (FolderPermissionId grant : folderPermissionRepository.findIdsByFolderIds(outsideIds)){
+                    affected.add(new FolderGrant(grant.getUserId(), grant.getPermission()));
+                }
+            }
+            allowedBefore = allowedDocumentIds(affected, documentIds);
+        }
+
+        folderClosureRepository.detachSubtree(subtreeIds);
+        List<FolderClosure> links = new ArrayList<>(ancestors.size() * subtree.size());
+        for (FolderClosure ancestor : ancestors){
+            for (FolderClosure descendant : subtree){
+                links.add(new FolderClosure(ancestor.getId().getAncestorId(), descendant.getId().getDescendantId(),
+                        ancestor.getDepth() + descendant.getDepth() + 1));
+            }
+        }
+        folderClosureRepository.saveAll(links);
+        folder.setParentId(parentId);
+        folderRepository.save(folder);
+        documentDecisionCache.folderMoved();
+
+        Map<FolderGrant, Set<Long>> allowedAfter = allowedDocumentIds(affected, documentIds);
+        for (FolderGrant grant : affected){
+            Set<Long> before = allowedBefore.get(grant);
+            Set<Long> after = allowedAfter.get(grant);
+            for (Long documentId : documentIds){
+                if(after.contains(documentId) && !before.contains(documentId)){
+                    aclChangeLog.permissionGranted(documentId, grant.userId(), grant.permission());
+                } else if(before.contains(documentId) && !after.contains(documentId)){
+                    aclChangeLog.permissionRevoked(documentId, grant.userId(), grant.permission());
+                }
+            }
+        }
+        return folderBeanToDto(folder);
+    }
+
+    @Transactional
+    public void grantPermission(CurrentUser user, Long id, GrantPermissionRequest request){
+        if(request.getUsername() == null || request.getUsername().trim().isEmpty()){
+            throw new IllegalArgumentException("username is required");
+        }
+        requireFolder(id);
+        if(!ADMIN_USER.equalsIgnoreCase(user.username())
+                && !folderPermissionRepository.existsInherited(user.id(), Permission.WRITE, id)){
+            throw new AccessDeniedException("You don't have a permission to grant access to this folder");
+        }
+
+        int granteeId = userDictionary.idOf(request.getUsername());
+        FolderPermissionId permissionId = new FolderPermissionId(granteeId, request.getPermission(), id);
+        if(folderPermissionRepository.existsById(permissionId)){
+            return;
+        }
+        FolderGrant grant = new FolderGrant(granteeId, request.getPermission());
+        List<Long> documentIds = List.of();
+        Set<Long> allowedBefore = Set.of();
+        if(aclChangeLog.isEnabled()){
+            Set<Long> subtreeIds = new HashSet<>();
+            for (FolderClosure link : folderClosureRepository.findSubtree(id)){
+                subtreeIds.add(link.getId().getDescendantId());
+            }
+            documentIds = documentRepository.findIdsByFolderIds(subtreeIds);
+            allowedBefore = allowedDocumentIds(Set.of(grant), documentIds).get(grant);
+        }
+
+        folderPermissionRepository.save(new FolderPermission(id, granteeId, request.getPermission()));
+        documentDecisionCache.folderPermissionChanged(granteeId, request.getPermission());
+        for (Long documentId : documentIds){
+            if(!allowedBefore.contains(documentId)){
+                aclChangeLog.permissionGranted(documentId, granteeId, request.getPermission());
+            }
+        }
+    }
+
+    public void requireFolderExists(Long id){
+        if(!folderRepository.existsById(id)){
+            throw new IllegalArgumentException("Folder not found: " + id);
+        }
+    }
+
+    private Folder requireFolder(Long id){
+        return folderRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Folder not found: " + id));
+    }
+
+    private void requireAdmin(CurrentUser user){
+        if(!ADMIN_USER.equalsIgnoreCase(user.username())){
+            throw new AccessDeniedException("Only Admin user can manage folders");
+        }
+    }
+
+    // ids of these documents on which each user holds the permission through any path
+    private Map<FolderGrant, Set<Long>> allowedDocumentIds(Collection<FolderGrant> grants, List<Long> documentIds){
+        Map<FolderGrant, Set<Long>> allowed = new HashMap<>();
+        for (FolderGrant grant : grants){
+            allowed.put(grant, documentIds.isEmpty() ? Set.of()
+                    : new HashSet<>(documentRepository.findAccessibleDocumentIds(grant.userId(), grant.permission(), documentIds)));
+        }
+        return allowed;
+    }
+
+    private FolderDto folderBeanToDto(Folder folder){
+        return new FolderDto(folder.getId(), folder.getName(), folder.getParentId());
+    }
+
+    private record FolderGrant(int userId, Permission permission) {
+    }
+}
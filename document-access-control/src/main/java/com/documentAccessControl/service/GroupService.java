@@ -0,0 +1,231 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.CreateGroupRequest;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.dto.GroupDto;
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentEffectivePermission;
+import com.documentAccessControl.entity.DocumentEffectivePermissionId;
+import com.documentAccessControl.entity.DocumentGroupPermission;
+import com.documentAccessControl.entity.DocumentPermission;
+import com.documentAccessControl.entity.GroupMember;
+import com.documentAccessControl.entity.GroupMemberId;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.entity.UserGroup;
+import com.documentAccessControl.exception.AccessDeniedException;
+import com.documentAccessControl.repository.DocumentEffectivePermissionRepository;
+import com.documentAccessControl.repository.DocumentGroupPermissionRepository;
+import com.documentAccessControl.repository.DocumentPermissionRepository;
+import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.repository.GroupMemberRepository;
+import com.documentAccessControl.repository.UserGroupRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups as grantees. Group grants are expanded per member into document_effective_permission, so access checks
+ * and listings keep using the single-user lookup; membership and grant changes only touch the affected rows.
+ */
+@Service
+@Timed(value = "group.service", histogram = true)
+public class GroupService {
+    private static final String ADMIN_USER = "admin";
+
+    private final UserGroupRepository userGroupRepository;
+    private final GroupMemberRepository groupMemberRepository;
+    private final DocumentGroupPermissionRepository documentGroupPermissionRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentPermissionRepository documentPermissionRepository;
+    private final DocumentEffectivePermissionRepository documentEffectivePermissionRepository;
+    private final DocumentAclIndex documentAclIndex;
+    private final DocumentDecisionCache documentDecisionCache;
+    private final AclChangeLog aclChangeLog;
+    private final UserDictionary userDictionary;
+
+    public GroupService(UserGroupRepository userGroupRepository, GroupMemberRepository groupMemberRepository,
+                        DocumentGroupPermissionRepository documentGroupPermissionRepository,
+                        DocumentRepository documentRepository,
+                        DocumentPermissionRepository documentPermissionRepository,
+                        DocumentEffectivePermissionRepository documentEffectivePermissionRepository,
+                        DocumentAclIndex documentAclIndex, DocumentDecisionCache documentDecisionCache,
+                        AclChangeLog aclChangeLog, UserDictionary userDictionary) {
+        this.userGroupRepository = userGroupRepository;
+        this.groupMemberRepository = groupMemberRepository;
+        this.documentGroupPermissionRepository = documentGroupPermissionRepository;
+        this.documentRepository = documentRepository;
+        this.documentPermissionRepository = documentPermissionRepository;
+        this.documentEffectivePermissionRepository = documentEffectivePermissionRepository;
+        this.documentAclIndex = documentAclIndex;
+        this.documentDecisionCache = documentDecisionCache;
+        this.aclChangeLog = aclChangeLog;
+        this.userDictionary = userDictionary;
+    }
+
+    @Transactional
+    public GroupDto createGroup(CurrentUser user, CreateGroupRequest request){
+        requireAdmin(user);
+        if(userGroupRepository.findByName(request.getName()).isPresent()){
+            throw new IllegalArgumentException("Group already exists: " + request.getName());
+        }
+
+        UserGroup group = userGroupRepository.save(new UserGroup(request.getName()));
+        return new GroupDto(group.getName(), new ArrayList<>());
+    }
+
+    @Transactional(readOnly = true)
+    public GroupDto getGroup(CurrentUser user, String name){
+        requireAdmin(user);
+        UserGroup group = findGroup(name);
+
+        List<String> members = groupMemberRepository.findUserIdsByGroupId(group.getId()).stream()
+                .map(userDictionary::usernameOf)
+                .sorted()
+                .toList();
+        return new GroupDto(group.getName(), members);
+    }
+
+    @Transactional
+    public void addMember(CurrentUser user, String name, String username){
+        requireAdmin(user);
+        UserGroup group = findGroup(name);
+        int memberId = userDictionary.idOf(username);
+
+        if(groupMemberRepository.existsById(new GroupMemberId(group.getId(), memberId))){
+            return;
+        }
+        groupMemberRepository.save(new GroupMember(group.getId(), memberId));
+        refreshEffectivePermissions(memberId, documentGroupPermissionRepository.findDocumentIdsByGroupId(group.getId()));
+    }
+
+    @Transactional
+    public void removeMember(CurrentUser user, String name, String username){
+        requireAdmin(user);
+        UserGroup group = findGroup(name);
+        int memberId = userDictionary.idOf(username);
+
+        GroupMemberId id = new GroupMemberId(group.getId(), memberId);
+        if(!groupMemberRepository.existsById(id)){
+            return;
+        }
+        groupMemberRepository.deleteById(id);
+        refreshEffectivePermissions(memberId, documentGroupPermissionRepository.findDocumentIdsByGroupId(group.getId()));
+    }
+
+    // the caller has already checked that the user may grant on this document
+    @Transactional
+    public boolean grantToGroup(Document document, String name, Permission permission){
+        UserGroup group = findGroup(name);
+
+        DocumentGroupPermission groupPermission = documentGroupPermissionRepository
+                .findByDocumentIdAndGroupId(document.getId(), group.getId())
+                .orElse(null);
+        if(groupPermission == null){
+            groupPermission = new DocumentGroupPermission(document, group.getId(), permission);
+        } else if(!groupPermission.grant(permission)){
+            return false;
+        }
+        documentGroupPermissionRepository.save(groupPermission);
+
+        Set<Integer> memberIds = new HashSet<>(groupMemberRepository.findUserIdsByGroupId(group.getId()));
+        memberIds.remove(document.getOwnerId());
+        if(memberIds.isEmpty()){
+            return true;
+        }
+        memberIds.removeAll(new HashSet<>(documentEffectivePermissionRepository.findUserIdsWithPermission(document.getId(), permission, memberIds)));
+
+        List<DocumentEffectivePermission> entries = new ArrayList<>(memberIds.size());
+        for (int memberId : memberIds){
+            entries.add(new DocumentEffectivePermission(document, memberId, permission));
+        }
+        documentEffectivePermissionRepository.saveAll(entries);
+        for (int memberId : memberIds){
+            documentAclIndex.permissionGranted(document.getId(), memberId, permission);
+            aclChangeLog.permissionGranted(document.getId(), memberId, permission);
+            documentDecisionCache.permissionChanged(document.getId(), memberId, permission);
+        }
+        return true;
+    }
+
+    // brings the user's effective entries on these documents in line with their direct and group grants
+    private void refreshEffectivePermissions(int userId, List<Long> documentIds){
+        if(documentIds.isEmpty()){
+            return;
+        }
+
+        Set<Long> owned = new HashSet<>();
+        for (Object[] row : documentRepository.findDocumentOwners(documentIds)){
+            if((Integer) row[1] == userId){
+                owned.add((Long) row[0]);
+            }
+        }
+        Map<Long, Integer> expected = new HashMap<>();
+        for (DocumentPermission permission : documentPermissionRepository.findByDocumentIdsAndUserIds(documentIds, List.of(userId))){
+            expected.merge(permission.getDocument().getId(), permission.getPermissionMask(), (a, b) -> a | b);
+        }
+        for (Object[] row : documentGroupPermissionRepository.findMemberPermissionEntries(userId, documentIds)){
+            expected.merge((Long) row[0], (Integer) row[1], (a, b) -> a | b);
+        }
+        Map<Long, Integer> existing = new HashMap<>();
+        for (DocumentEffectivePermissionId id : documentEffectivePermissionRepository.findIdsByUserIdAndDocumentIds(userId, documentIds)){
+            existing.merge(id.getDocumentId(), id.getPermission().getMask(), (a, b) -> a | b);
+        }
+
+        List<DocumentEffectivePermission> added = new ArrayList<>();
+        Map<Permission, List<Long>> removed = new EnumMap<>(Permission.class);
+        for (Long documentId : new HashSet<>(documentIds)){
+            if(owned.contains(documentId)){
+                continue;
+            }
+            int expectedMask = expected.getOrDefault(documentId, 0);
+            int existingMask = existing.getOrDefault(documentId, 0);
+            for (Permission permission : Permission.fromMask(expectedMask & ~existingMask)){
+                added.add(new DocumentEffectivePermission(documentRepository.getReferenceById(documentId), userId, permission));
+            }
+            for (Permission permission : Permission.fromMask(existingMask & ~expectedMask)){
+                removed.computeIfAbsent(permission, p -> new ArrayList<>()).add(documentId);
+            }
+        }
+
+        Set<Long> changed = new HashSet<>();
+        documentEffectivePermissionRepository.saveAll(added);
+        for (DocumentEffectivePermission entry : added){
+            changed.add(entry.getId().getDocumentId());
+            documentAclIndex.permissionGranted(entry.getId().getDocumentId(), userId, entry.getId().getPermission());
+            aclChangeLog.permissionGranted(entry.getId().getDocumentId(), userId, entry.getId().getPermission());
+            documentDecisionCache.permissionChanged(entry.getId().getDocumentId(), userId, entry.getId().getPermission());
+        }
+        removed.forEach((permission, ids) -> {
+            documentEffectivePermissionRepository.deleteByUserIdAndPermission(userId, permission, ids);
+            changed.addAll(ids);
+            for (Long documentId : ids){
+                documentAclIndex.permissionRevoked(documentId, userId, permission);
+                aclChangeLog.permissionRevoked(documentId, userId, permission);
+                documentDecisionCache.permissionChanged(documentId, userId, permission);
+            }
+        });
+        // access to these documents changed, so their strong ETags must not validate any more
+        if(!changed.isEmpty()){
+            documentRepository.incrementRevisions(changed);
+        }
+    }
+
+    private UserGroup findGroup(String name){
+        return userGroupRepository.findByName(name)
+                .orElseThrow(() -> new IllegalArgumentException("Group not found: " + name));
+    }
+
+    private void requireAdmin(CurrentUser user){
+        if(!ADMIN_USER.equalsIgnoreCase(user.username())){
+            throw new AccessDeniedException("Only Admin user can manage groups");
+        }
+    }
+}
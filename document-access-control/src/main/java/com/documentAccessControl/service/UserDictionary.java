@@ -0,0 +1,101 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.User;
+import com.documentAccessControl.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+/**
+ * Interned username <-> user id mapping backed by the users table. A username gets its id the first time it creates
+ * a document or receives a grant and keeps it forever, so both directions can be cached without invalidation.
+ * Callers that were never registered resolve to {@link #UNKNOWN_USER_ID}, which owns nothing and holds no grants.
+ */
+@Component
+public class UserDictionary {
+
+    // identity columns start at 1, so no stored grant or owner can ever match it
+    public static final int UNKNOWN_USER_ID = 0;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate newTransaction;
+    private final Cache<String, Integer> ids;
+    private final Cache<Integer, String> usernames;
+
+    public UserDictionary(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                          @Value("${document.user-dictionary.maximum-size:10000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ids = Caffeine.newBuilder().maximumSize(maximumSize).build();
+        this.usernames = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Lookup only: an unseen username is not inserted, it resolves to {@link #UNKNOWN_USER_ID}.
+     */
+    public CurrentUser resolve(String username) {
+        return new CurrentUser(find(username).orElse(UNKNOWN_USER_ID), username);
+    }
+
+    /**
+     * The caller's id for writes that store it, registering the caller if {@link #resolve} could not find it.
+     */
+    public int registeredIdOf(CurrentUser user) {
+        return user.id() == UNKNOWN_USER_ID ? idOf(user.username()) : user.id();
+    }
+
+    /**
+     * Registers the username if needed; only for users about to own something or receive a grant.
+     */
+    public int idOf(String username) {
+        return find(username).orElseGet(() -> {
+            User user = register(username);
+            remember(user.getId(), username);
+            return user.getId();
+        });
+    }
+
+    public String usernameOf(int id) {
+        String username = usernames.getIfPresent(id);
+        if (username != null) {
+            return username;
+        }
+        User user = userRepository.findById(id).orElseThrow(() -> new IllegalStateException("Unknown user id: " + id));
+        remember(id, user.getUsername());
+        return user.getUsername();
+    }
+
+    void remember(int id, String username) {
+        ids.put(username, id);
+        usernames.put(id, username);
+    }
+
+    // misses are not cached, otherwise arbitrary X-User values would still fill the cache
+    private Optional<Integer> find(String username) {
+        Integer id = ids.getIfPresent(username);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        Optional<User> user = userRepository.findByUsername(username);
+        user.ifPresent(u -> remember(u.getId(), username));
+        return user.map(User::getId);
+    }
+
+    // runs on its own transaction so a lost race does not mark the caller's transaction rollback-only
+    private User register(String username) {
+        try {
+            return newTransaction.execute(status -> userRepository.saveAndFlush(new User(username)));
+        } catch (DataIntegrityViolationException e) {
+            return newTransaction.execute(status -> userRepository.findByUsername(username)).orElseThrow(() -> e);
+        }
+    }
+}
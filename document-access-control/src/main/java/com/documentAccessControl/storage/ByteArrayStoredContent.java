@@ -0,0 +1,28 @@
+package com.documentAccessControl.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+public class ByteArrayStoredContent implements StoredContent {
+    public static final ByteArrayStoredContent EMPTY = new ByteArrayStoredContent(new byte[0]);
+
+    private final byte[] bytes;
+
+    public ByteArrayStoredContent(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public long length() {
+        return bytes.length;
+    }
+
+    @Override
+    public void transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, (int) position, (int) count);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.documentAccessControl.storage;
+
+import com.documentAccessControl.entity.Document;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ContentStore {
+
+    void write(Document document, String content);
+
+    String read(Long documentId);
+
+    Map<Long, String> readAll(List<Long> documentIds);
+
+    StoredContent open(Long documentId);
+
+    void delete(Long documentId);
+
+    boolean storesContentInDatabase();
+}
@@ -0,0 +1,60 @@
+package com.documentAccessControl.storage;
+
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentContent;
+import com.documentAccessControl.repository.DocumentContentRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(name = "document.content-store.type", havingValue = "database", matchIfMissing = true)
+public class DatabaseContentStore implements ContentStore {
+
+    private final DocumentContentRepository documentContentRepository;
+
+    public DatabaseContentStore(DocumentContentRepository documentContentRepository) {
+        this.documentContentRepository = documentContentRepository;
+    }
+
+    @Override
+    public void write(Document document, String content) {
+        documentContentRepository.save(new DocumentContent(document, content));
+    }
+
+    @Override
+    public String read(Long documentId) {
+        return documentContentRepository.findById(documentId)
+                .map(DocumentContent::getContent)
+                .orElse(null);
+    }
+
+    @Override
+    public Map<Long, String> readAll(List<Long> documentIds) {
+        Map<Long, String> contents = new HashMap<>();
+        for (Object[] row : documentContentRepository.findContentByDocumentIds(documentIds)) {
+            contents.put((Long) row[0], (String) row[1]);
+        }
+        return contents;
+    }
+
+    @Override
+    public StoredContent open(Long documentId) {
+        String content = read(documentId);
+        return content == null ? null : new ByteArrayStoredContent(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void delete(Long documentId) {
+        // document_content rows are removed by the ON DELETE CASCADE foreign key
+    }
+
+    @Override
+    public boolean storesContentInDatabase() {
+        return true;
+    }
+}
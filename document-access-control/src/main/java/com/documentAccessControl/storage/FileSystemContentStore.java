@@ -0,0 +1,126 @@
+package com.documentAccessControl.storage;
+
+import com.documentAccessControl.entity.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps document bodies as files outside the database. Files are not transactional, so inside a transaction a
+ * written file is removed again if the transaction rolls back, and a deleted one is only removed once it commits.
+ */
+@Component
+@ConditionalOnProperty(name = "document.content-store.type", havingValue = "filesystem")
+public class FileSystemContentStore implements ContentStore {
+    private static final int DIRECTORY_FAN_OUT = 1000;
+
+    private final Path root;
+
+    public FileSystemContentStore(@Value("${document.content-store.root}") String root) {
+        this.root = Paths.get(root).toAbsolutePath();
+    }
+
+    @Override
+    public void write(Document document, String content) {
+        Path target = resolve(document.getId());
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            Files.writeString(temp, content, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store content of document " + document.getId(), e);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long documentId = document.getId();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        deleteFile(documentId);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public String read(Long documentId) {
+        try {
+            return Files.readString(resolve(documentId), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read content of document " + documentId, e);
+        }
+    }
+
+    @Override
+    public Map<Long, String> readAll(List<Long> documentIds) {
+        Map<Long, String> contents = new HashMap<>();
+        for (Long documentId : documentIds) {
+            String content = read(documentId);
+            if (content != null) {
+                contents.put(documentId, content);
+            }
+        }
+        return contents;
+    }
+
+    @Override
+    public StoredContent open(Long documentId) {
+        Path path = resolve(documentId);
+        try {
+            return new FileStoredContent(path, Files.size(path));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open content of document " + documentId, e);
+        }
+    }
+
+    @Override
+    public void delete(Long documentId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteFile(documentId);
+                }
+            });
+        } else {
+            deleteFile(documentId);
+        }
+    }
+
+    private void deleteFile(Long documentId) {
+        try {
+            Files.deleteIfExists(resolve(documentId));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete content of document " + documentId, e);
+        }
+    }
+
+    @Override
+    public boolean storesContentInDatabase() {
+        return false;
+    }
+
+    private Path resolve(Long documentId) {
+        return root.resolve(String.format("%03d", documentId % DIRECTORY_FAN_OUT)).resolve(documentId.toString());
+    }
+}
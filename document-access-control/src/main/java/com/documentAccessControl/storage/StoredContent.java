@@ -0,0 +1,11 @@
+package com.documentAccessControl.storage;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+public interface StoredContent {
+
+    long length();
+
+    void transferTo(long position, long count, WritableByteChannel target) throws IOException;
+}
@@ -0,0 +1,14 @@
+-- One-off backfill of document_effective_permission for databases created before it existed.
+-- Run after the application has started once with ddl-auto=update so that the table exists.
+-- Owners hold every permission; grantees hold the bits of their permission_mask (READ = 1, WRITE = 2, DELETE = 4).
+
+INSERT IGNORE INTO document_effective_permission (document_id, permission, username)
+SELECT d.id, p.permission, d.created_by
+FROM documents d
+CROSS JOIN (SELECT 'READ' AS permission UNION ALL SELECT 'WRITE' UNION ALL SELECT 'DELETE') p;
+
+INSERT IGNORE INTO document_effective_permission (document_id, permission, username)
+SELECT dp.document_id, p.permission, dp.username
+FROM document_permission dp
+JOIN (SELECT 'READ' AS permission, 1 AS bit UNION ALL SELECT 'WRITE', 2 UNION ALL SELECT 'DELETE', 4) p
+  ON dp.permission_mask & p.bit <> 0;
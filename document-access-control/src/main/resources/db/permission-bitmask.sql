@@ -0,0 +1,37 @@
+-- One-off migration for databases that still store one document_permission row per (document, user, permission).
+-- Run with the application stopped, before starting the version that maps permission_mask.
+-- Bits: READ = 1, WRITE = 2, DELETE = 4.
+
+ALTER TABLE document_permission ADD COLUMN permission_mask INT NOT NULL DEFAULT 0;
+
+UPDATE document_permission
+SET permission_mask = CASE permission WHEN 'READ' THEN 1 WHEN 'WRITE' THEN 2 WHEN 'DELETE' THEN 4 ELSE 0 END;
+
+-- Fold every user's rows into the lowest id per (document, user) and drop the rest.
+UPDATE document_permission p
+JOIN (SELECT MIN(id) AS id, BIT_OR(permission_mask) AS permission_mask
+      FROM document_permission GROUP BY document_id, username) m ON m.id = p.id
+SET p.permission_mask = m.permission_mask;
+
+DELETE p FROM document_permission p
+JOIN (SELECT MIN(id) AS id, document_id, username
+      FROM document_permission GROUP BY document_id, username) k
+  ON k.document_id = p.document_id AND k.username = p.username AND k.id <> p.id;
+
+-- The old unique key covers (document_id, username, permission) under a name Hibernate generated, so look it up.
+-- It is the only index starting with document_id and backs that column's foreign key, so it is swapped for the new
+-- key in the same ALTER TABLE; MySQL refuses to drop it on its own (ERROR 1553). The new key is on username because
+-- user_id does not exist yet: user-ids.sql re-keys it to (document_id, user_id), the columns the entity maps.
+SET @old_unique_key = (SELECT INDEX_NAME FROM information_schema.STATISTICS
+                       WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'document_permission'
+                         AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY'
+                       GROUP BY INDEX_NAME
+                       HAVING SUM(COLUMN_NAME = 'permission') > 0
+                       LIMIT 1);
+SET @rekey = CONCAT('ALTER TABLE document_permission ',
+                    IF(@old_unique_key IS NULL, '', CONCAT('DROP INDEX `', @old_unique_key, '`, ')),
+                    'DROP COLUMN permission, ',
+                    'ADD CONSTRAINT uk_document_permission_user UNIQUE (document_id, username)');
+PREPARE rekey FROM @rekey;
+EXECUTE rekey;
+DEALLOCATE PREPARE rekey;
@@ -0,0 +1,20 @@
+-- One-off migration for databases created while documents, document_permission and document_group_permission used
+-- AUTO_INCREMENT ids.
+-- Run before the first start with pooled sequence ids. MySQL has no sequences, so Hibernate keeps each one in a
+-- single-row next_val table; creating and seeding them here means ddl-auto=update finds them and leaves them alone.
+-- The pooled optimizer allocates the 100 ids below the value it reads, hence the headroom above the current maximum.
+
+CREATE TABLE IF NOT EXISTS document_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS document_permission_seq (next_val BIGINT);
+CREATE TABLE IF NOT EXISTS document_group_permission_seq (next_val BIGINT);
+
+DELETE FROM document_seq;
+INSERT INTO document_seq (next_val) SELECT COALESCE(MAX(id), 0) + 101 FROM documents;
+DELETE FROM document_permission_seq;
+INSERT INTO document_permission_seq (next_val) SELECT COALESCE(MAX(id), 0) + 101 FROM document_permission;
+DELETE FROM document_group_permission_seq;
+INSERT INTO document_group_permission_seq (next_val) SELECT COALESCE(MAX(id), 0) + 101 FROM document_group_permission;
+
+ALTER TABLE documents MODIFY id BIGINT NOT NULL;
+ALTER TABLE document_permission MODIFY id BIGINT NOT NULL;
+ALTER TABLE document_group_permission MODIFY id BIGINT NOT NULL;
@@ -0,0 +1,9 @@
+-- One-off migration for databases created before document bodies moved to document_content.
+-- Run after the application has started once with ddl-auto=update so that document_content exists.
+
+INSERT INTO document_content (document_id, content)
+SELECT d.id, d.content FROM documents d
+WHERE d.content IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM document_content c WHERE c.document_id = d.id);
+
+ALTER TABLE documents DROP COLUMN content;
@@ -0,0 +1,36 @@
+-- One-off migration from username columns to integer user ids.
+-- Run with the application stopped, after permission-bitmask.sql and effective-permissions.sql,
+-- before starting the version that maps owner_id / user_id.
+
+CREATE TABLE IF NOT EXISTS users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
+INSERT IGNORE INTO users (username)
+SELECT created_by FROM documents
+UNION SELECT username FROM document_permission
+UNION SELECT username FROM document_effective_permission;
+
+ALTER TABLE documents ADD COLUMN owner_id INT NULL;
+UPDATE documents d JOIN users u ON u.username = d.created_by SET d.owner_id = u.id;
+ALTER TABLE documents MODIFY owner_id INT NOT NULL, DROP COLUMN created_by;
+
+ALTER TABLE document_permission ADD COLUMN user_id INT NULL;
+UPDATE document_permission p JOIN users u ON u.username = p.username SET p.user_id = u.id;
+ALTER TABLE document_permission
+    DROP INDEX uk_document_permission_user,
+    MODIFY user_id INT NOT NULL,
+    DROP COLUMN username,
+    ADD CONSTRAINT uk_document_permission_user UNIQUE (document_id, user_id);
+
+ALTER TABLE document_effective_permission ADD COLUMN user_id INT NULL;
+UPDATE document_effective_permission e JOIN users u ON u.username = e.username SET e.user_id = u.id;
+ALTER TABLE document_effective_permission
+    DROP PRIMARY KEY,
+    DROP INDEX idx_effective_permission_lookup,
+    MODIFY user_id INT NOT NULL,
+    DROP COLUMN username,
+    ADD PRIMARY KEY (document_id, user_id, permission),
+    ADD INDEX idx_effective_permission_lookup (user_id, permission, document_id);
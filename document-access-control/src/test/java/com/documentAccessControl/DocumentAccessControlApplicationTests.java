@@ -184,15 +184,14 @@ class DocumentAccessControlApplicationTests {
 
 		AccessCheckRequest checkRequest = new AccessCheckRequest();
 		checkRequest.setPermission(Permission.READ);
-		checkRequest.setDocumentIds(Arrays.asList(id1, id2));
+		checkRequest.setDocumentIds(new long[]{id1, id2});
 
 		HttpEntity<AccessCheckRequest> checkEntity = new HttpEntity<>(checkRequest, createHeaders("user5"));
 		ResponseEntity<AccessCheckResponse> checkResponse = restTemplate.postForEntity(
 				getBaseUrl() + "/access-check", checkEntity, AccessCheckResponse.class);
 
 		assertEquals(HttpStatus.OK, checkResponse.getStatusCode());
-		assertEquals(1, checkResponse.getBody().getAccessibleIds().size());
-		assertTrue(checkResponse.getBody().getAccessibleIds().contains(id1));
+		assertArrayEquals(new long[]{id1}, checkResponse.getBody().getAccessibleIds());
 	}
 
 	@Test
@@ -219,14 +218,14 @@ class DocumentAccessControlApplicationTests {
 
 		AccessCheckRequest checkRequest = new AccessCheckRequest();
 		checkRequest.setPermission(Permission.READ);
-		checkRequest.setDocumentIds(Arrays.asList(id1, id2));
+		checkRequest.setDocumentIds(new long[]{id1, id2});
 
 		HttpEntity<AccessCheckRequest> checkEntity = new HttpEntity<>(checkRequest, createHeaders("admin"));
 		ResponseEntity<AccessCheckResponse> checkResponse = restTemplate.postForEntity(
 				getBaseUrl() + "/access-check", checkEntity, AccessCheckResponse.class);
 
 		assertEquals(HttpStatus.OK, checkResponse.getStatusCode());
-		assertEquals(2, checkResponse.getBody().getAccessibleIds().size());
+		assertEquals(2, checkResponse.getBody().getAccessibleIds().length);
 	}
 }
 
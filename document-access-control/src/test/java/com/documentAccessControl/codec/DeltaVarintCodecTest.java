@@ -0,0 +1,56 @@
+package com.documentAccessControl.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaVarintCodecTest {
+
+    @Test
+    void testRoundTripKeepsOrderAndExtremes() {
+        long[] ids = {5L, 3L, Long.MAX_VALUE, 0L, Long.MIN_VALUE, 3L};
+
+        assertArrayEquals(ids, DeltaVarintCodec.readIds(ByteBuffer.wrap(DeltaVarintCodec.encode(ids))));
+    }
+
+    @Test
+    void testSortedIdsTakeOneByteEachWhenDense() {
+        long[] ids = new long[10_000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1_000_000 + i;
+        }
+
+        byte[] encoded = DeltaVarintCodec.encode(ids);
+
+        // count (2 bytes), first delta (3 bytes), then one byte per id
+        assertEquals(2 + 3 + ids.length - 1, encoded.length);
+        assertArrayEquals(ids, DeltaVarintCodec.readIds(ByteBuffer.wrap(encoded)));
+    }
+
+    @Test
+    void testEmptyArray() {
+        byte[] encoded = DeltaVarintCodec.encode(new long[0]);
+
+        assertArrayEquals(new byte[]{0}, encoded);
+        assertEquals(0, DeltaVarintCodec.readIds(ByteBuffer.wrap(encoded)).length);
+    }
+
+    @Test
+    void testCountLargerThanBodyIsRejected() {
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 2});
+
+        assertThrows(IllegalArgumentException.class, () -> DeltaVarintCodec.readIds(buffer));
+    }
+
+    @Test
+    void testTruncatedAndOverlongVarintsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DeltaVarintCodec.readIds(ByteBuffer.wrap(new byte[]{2, 4, (byte) 0x80})));
+
+        byte[] overlong = new byte[11];
+        Arrays.fill(overlong, (byte) 0x80);
+        assertThrows(IllegalArgumentException.class, () -> DeltaVarintCodec.readUnsigned(ByteBuffer.wrap(overlong)));
+    }
+}
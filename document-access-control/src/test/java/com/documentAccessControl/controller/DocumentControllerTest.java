@@ -1,11 +1,18 @@
 package com.documentAccessControl.controller;
 
+import com.documentAccessControl.codec.DeltaVarintCodec;
 import com.documentAccessControl.dto.*;
 import com.documentAccessControl.entity.Permission;
 import com.documentAccessControl.exception.AccessDeniedException;
 import com.documentAccessControl.exception.DocumentNotFoundException;
+import com.documentAccessControl.entity.AclChangeType;
+import com.documentAccessControl.exception.AclChangesCompactedException;
+import com.documentAccessControl.service.AccessCheckCoalescer;
+import com.documentAccessControl.service.AclChangeLog;
 import com.documentAccessControl.service.DocumentService;
 import com.documentAccessControl.service.DocumentServiceTest;
+import com.documentAccessControl.service.UserDictionary;
+import com.documentAccessControl.storage.ByteArrayStoredContent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,18 +21,30 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(DocumentController.class)
 public class DocumentControllerTest {
+    private static final CurrentUser ADMIN = new CurrentUser(1, "admin");
+    private static final CurrentUser USER1 = new CurrentUser(2, "user1");
 
     @Autowired
     private MockMvc mockMvc;
@@ -33,6 +52,15 @@ public class DocumentControllerTest {
     @MockitoBean
     private DocumentService documentService;
 
+    @MockitoBean
+    private AccessCheckCoalescer accessCheckCoalescer;
+
+    @MockitoBean
+    private UserDictionary userDictionary;
+
+    @MockitoBean
+    private AclChangeLog aclChangeLog;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -42,6 +70,8 @@ public class DocumentControllerTest {
 
     @BeforeEach
     void setUp(){
+        when(userDictionary.resolve(anyString())).thenAnswer(invocation ->
+                Map.of("admin", ADMIN, "user1", USER1).get(invocation.<String>getArgument(0)));
         documentDtoTest = new DocumentDto(1L, "Test Document", "Document content here...", "csv", Arrays.asList());
 
         createDocumentRequestTest = new CreateDocumentRequest();
@@ -53,7 +83,7 @@ public class DocumentControllerTest {
 
     @Test
     void testCreateDocumentSuccess() throws Exception {
-        when(documentService.createDocument(eq("admin"), any(CreateDocumentRequest.class)))
+        when(documentService.createDocument(eq(ADMIN), any(CreateDocumentRequest.class)))
                 .thenReturn(documentDtoTest);
 
         mockMvc.perform(post("/documents")
@@ -62,7 +92,7 @@ public class DocumentControllerTest {
                         .content(objectMapper.writeValueAsString(createDocumentRequestTest)))
                 .andExpect(status().isCreated());
 
-        verify(documentService, times(1)).createDocument(eq("admin"), any(CreateDocumentRequest.class));
+        verify(documentService, times(1)).createDocument(eq(ADMIN), any(CreateDocumentRequest.class));
     }
 
     @Test
@@ -87,7 +117,7 @@ public class DocumentControllerTest {
 
     @Test
     void testCreateDocumentAccessDenied() throws Exception {
-        when(documentService.createDocument(eq("user1"), any(CreateDocumentRequest.class)))
+        when(documentService.createDocument(eq(USER1), any(CreateDocumentRequest.class)))
                 .thenThrow(new AccessDeniedException("Only admin can create documents"));
 
         mockMvc.perform(post("/documents")
@@ -101,13 +131,31 @@ public class DocumentControllerTest {
     @Test
     void testGetListOfAccessibleDocumentsSuccess() throws Exception{
         List<DocumentDto> documents = Arrays.asList(documentDtoTest);
-        when(documentService.getListOfAccessibleDocuments("admin")).thenReturn(documents);
+        when(documentService.getListOfAccessibleDocuments(ADMIN)).thenReturn(documents);
 
         mockMvc.perform(get("/documents")
                        .header("X-User", "admin"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ListFingerprint.of(documents).toEtag()));
 
-        verify(documentService, times(1)).getListOfAccessibleDocuments("admin");
+        verify(documentService, times(1)).getListOfAccessibleDocuments(ADMIN);
+        verify(documentService, never()).getListFingerprint(any());
+    }
+
+    @Test
+    void testGetPageOfAccessibleDocumentsSuccess() throws Exception{
+        DocumentPageDto page = new DocumentPageDto(Arrays.asList(new DocumentDto(1L, "Test Document", "csv")), 1L);
+        when(documentService.getPageOfAccessibleDocuments(ADMIN, 0L, 1, false, false)).thenReturn(page);
+
+        mockMvc.perform(get("/documents")
+                        .param("after", "0")
+                        .param("limit", "1")
+                        .header("X-User", "admin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor", is(1)))
+                .andExpect(jsonPath("$.documents[0].name", is("Test Document")));
+
+        verify(documentService, never()).getListOfAccessibleDocuments(any());
     }
 
     @Test
@@ -118,18 +166,59 @@ public class DocumentControllerTest {
 
     @Test
     void testGetDocumentByIdSuccess() throws Exception{
-        when(documentService.getDocumentById("admin", 1L)).thenReturn(documentDtoTest);
+        when(documentService.getDocumentById(ADMIN, 1L)).thenReturn(documentDtoTest);
 
         mockMvc.perform(get("/documents/1")
                 .header("X-User","admin"))
                 .andExpect(status().isOk());
 
-        verify(documentService, times(1)).getDocumentById("admin",1L);
+        verify(documentService, times(1)).getDocumentById(ADMIN,1L);
+    }
+
+    @Test
+    void testGetDocumentByIdWithCurrentEtagIsNotModified() throws Exception{
+        when(documentService.getDocumentRevision(ADMIN, 1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/documents/1")
+                        .header("X-User", "admin")
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(documentService, never()).getDocumentById(any(), any());
+    }
+
+    @Test
+    void testGetDocumentByIdWithStaleEtagReturnsBody() throws Exception{
+        documentDtoTest.setRevision(4L);
+        when(documentService.getDocumentRevision(ADMIN, 1L)).thenReturn(4L);
+        when(documentService.getDocumentById(ADMIN, 1L)).thenReturn(documentDtoTest);
+
+        mockMvc.perform(get("/documents/1")
+                        .header("X-User", "admin")
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.revision").doesNotExist());
+    }
+
+    @Test
+    void testGetListOfAccessibleDocumentsWithCurrentEtagIsNotModified() throws Exception{
+        ListFingerprint fingerprint = ListFingerprint.of(Arrays.asList(documentDtoTest));
+        when(documentService.getListFingerprint(ADMIN)).thenReturn(fingerprint);
+
+        mockMvc.perform(get("/documents")
+                        .header("X-User", "admin")
+                        .header("If-None-Match", fingerprint.toEtag()))
+                .andExpect(status().isNotModified());
+
+        verify(documentService, never()).getListOfAccessibleDocuments(any());
     }
 
     @Test
     void testGetDocumentByIdNotFound() throws Exception {
-        when(documentService.getDocumentById("admin", 1L))
+        when(documentService.getDocumentById(ADMIN, 1L))
                 .thenThrow(new DocumentNotFoundException("Document not found"));
 
         mockMvc.perform(get("/documents/1")
@@ -140,7 +229,7 @@ public class DocumentControllerTest {
 
     @Test
     void testGetDocumentByIdAccessDenied() throws Exception {
-        when(documentService.getDocumentById("user1", 1L))
+        when(documentService.getDocumentById(USER1, 1L))
                 .thenThrow(new AccessDeniedException("Access denied"));
 
         mockMvc.perform(get("/documents/1")
@@ -148,21 +237,67 @@ public class DocumentControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void testGetDocumentContentSuccess() throws Exception {
+        when(documentService.openDocumentContent(ADMIN, 1L))
+                .thenReturn(new ByteArrayStoredContent("Document content here...".getBytes()));
+
+        MvcResult result = mockMvc.perform(get("/documents/1/content")
+                        .header("X-User", "admin"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+                .andExpect(content().string("Document content here..."));
+    }
+
+    @Test
+    void testGetDocumentContentRange() throws Exception {
+        when(documentService.openDocumentContent(ADMIN, 1L))
+                .thenReturn(new ByteArrayStoredContent("Document content here...".getBytes()));
+
+        MvcResult result = mockMvc.perform(get("/documents/1/content")
+                        .header("X-User", "admin")
+                        .header("Range", "bytes=9-15"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 9-15/24"))
+                .andExpect(content().string("content"));
+    }
+
+    @Test
+    void testGetDocumentContentUnsatisfiableRange() throws Exception {
+        when(documentService.openDocumentContent(ADMIN, 1L))
+                .thenReturn(new ByteArrayStoredContent("Document".getBytes()));
+
+        mockMvc.perform(get("/documents/1/content")
+                        .header("X-User", "admin")
+                        .header("Range", "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */8"));
+    }
+
     @Test
     void testDeleteDocumentSuccess() throws Exception {
-        doNothing().when(documentService).deleteDocument("admin", 1L);
+        doNothing().when(documentService).deleteDocument(ADMIN, 1L);
 
         mockMvc.perform(delete("/documents/1")
                         .header("X-User", "admin"))
                 .andExpect(status().isNoContent());
 
-        verify(documentService, times(1)).deleteDocument("admin", 1L);
+        verify(documentService, times(1)).deleteDocument(ADMIN, 1L);
     }
 
     @Test
     void testDeleteDocument_NotFound() throws Exception {
         doThrow(new DocumentNotFoundException("Document not found"))
-                .when(documentService).deleteDocument("admin", 1L);
+                .when(documentService).deleteDocument(ADMIN, 1L);
 
         mockMvc.perform(delete("/documents/1")
                         .header("X-User", "admin"))
@@ -172,7 +307,7 @@ public class DocumentControllerTest {
     @Test
     void testDeleteDocument_AccessDenied() throws Exception {
         doThrow(new AccessDeniedException("Access denied"))
-                .when(documentService).deleteDocument("user1", 1L);
+                .when(documentService).deleteDocument(USER1, 1L);
 
         mockMvc.perform(delete("/documents/1")
                         .header("X-User", "user1"))
@@ -185,26 +320,41 @@ public class DocumentControllerTest {
         grantRequest.setUsername("user1");
         grantRequest.setPermission(Permission.READ);
 
-        when(documentService.grantPermission(eq("admin"), eq(1L), any(GrantPermissionRequest.class)))
+        when(documentService.grantPermission(eq(ADMIN), eq(1L), any(GrantPermissionRequest.class)))
                 .thenReturn(documentDtoTest);
 
         mockMvc.perform(post("/documents/1/grant")
                         .header("X-User", "admin")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(grantRequest)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + documentDtoTest.getRevision() + "\""));
 
-        verify(documentService, times(1)).grantPermission(eq("admin"), eq(1L), any(GrantPermissionRequest.class));
+        verify(documentService, times(1)).grantPermission(eq(ADMIN), eq(1L), any(GrantPermissionRequest.class));
+    }
+
+    @Test
+    void testSearchDocuments_Success() throws Exception {
+        when(documentService.searchDocuments(USER1, "budget report", 20))
+                .thenReturn(List.of(new SearchHitDto(3L, "Budget report", "pdf", 2.5)));
+
+        mockMvc.perform(get("/documents/search")
+                        .header("X-User", "user1")
+                        .param("q", "budget report"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(3)))
+                .andExpect(jsonPath("$[0].name", is("Budget report")))
+                .andExpect(jsonPath("$[0].score", is(2.5)));
     }
 
     @Test
     void testCheckAccess_Success() throws Exception {
         AccessCheckRequest checkRequest = new AccessCheckRequest();
-        checkRequest.setDocumentIds(Arrays.asList(1L, 2L));
+        checkRequest.setDocumentIds(new long[]{1L, 2L});
         checkRequest.setPermission(Permission.READ);
 
-        AccessCheckResponse response = new AccessCheckResponse(Arrays.asList(1L));
-        when(documentService.checkAccess(eq("admin"), any(AccessCheckRequest.class)))
+        AccessCheckResponse response = new AccessCheckResponse(new long[]{1L});
+        when(accessCheckCoalescer.checkAccess(eq(ADMIN), any(AccessCheckRequest.class)))
                 .thenReturn(response);
 
         mockMvc.perform(post("/documents/access-check")
@@ -213,7 +363,109 @@ public class DocumentControllerTest {
                         .content(objectMapper.writeValueAsString(checkRequest)))
                 .andExpect(status().isOk());
 
-        verify(documentService, times(1)).checkAccess(eq("admin"), any(AccessCheckRequest.class));
+        verify(accessCheckCoalescer, times(1)).checkAccess(eq(ADMIN), any(AccessCheckRequest.class));
+    }
+
+    @Test
+    void testCheckAccess_BinaryRoundTrip() throws Exception {
+        when(accessCheckCoalescer.checkAccess(eq(ADMIN), argThat(request -> request.getPermission() == Permission.WRITE
+                && Arrays.equals(request.getDocumentIds(), new long[]{3L, 1000L, 7L}))))
+                .thenReturn(new AccessCheckResponse(new long[]{3L, 1000L}));
+        BinaryAccessCheck body = new BinaryAccessCheck(Permission.WRITE, new long[]{3L, 1000L, 7L});
+
+        MvcResult result = mockMvc.perform(post("/documents/access-check")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .accept(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(body.bytes()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn();
+
+        assertArrayEquals(new long[]{3L, 1000L}, DeltaVarintCodec.readIds(ByteBuffer.wrap(result.getResponse().getContentAsByteArray())));
+    }
+
+    @Test
+    void testCheckAccess_JsonStaysDefaultForBinaryRequest() throws Exception {
+        when(accessCheckCoalescer.checkAccess(eq(ADMIN), any(AccessCheckRequest.class)))
+                .thenReturn(new AccessCheckResponse(new long[]{1L}));
+
+        mockMvc.perform(post("/documents/access-check")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new BinaryAccessCheck(Permission.READ, new long[]{1L}).bytes()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessibleIds[0]", is(1)));
+    }
+
+    @Test
+    void testCheckAccess_NonIntegerIdIsBadRequest() throws Exception {
+        mockMvc.perform(post("/documents/access-check")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"permission\":\"READ\",\"documentIds\":[1,null]}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(accessCheckCoalescer);
+    }
+
+    @Test
+    void testCheckAccess_MalformedBinaryIsBadRequest() throws Exception {
+        mockMvc.perform(post("/documents/access-check")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[]{(byte) Permission.READ.getMask(), 100, 2}))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(accessCheckCoalescer);
+    }
+
+    @Test
+    void testCreateDocuments_Success() throws Exception {
+        when(documentService.createDocuments(eq(ADMIN), any(BulkCreateDocumentRequest.class)))
+                .thenReturn(Arrays.asList(documentDtoTest));
+
+        mockMvc.perform(post("/documents/batch")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkCreateDocumentRequest(Arrays.asList(createDocumentRequestTest)))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    @Test
+    void testCreateDocuments_EmptyBatch() throws Exception {
+        mockMvc.perform(post("/documents/batch")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkCreateDocumentRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testBulkGrantPermissions_Success() throws Exception {
+        BulkGrantItem item = new BulkGrantItem(1L, "user2", Permission.READ);
+        BulkGrantResponse response = new BulkGrantResponse(Arrays.asList(new BulkGrantResult(item, BulkGrantResult.Status.GRANTED)));
+        when(documentService.bulkGrantPermissions(eq(ADMIN), any(BulkGrantRequest.class))).thenReturn(response);
+
+        mockMvc.perform(post("/documents/grants")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkGrantRequest(Arrays.asList(item)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].documentId", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("GRANTED")));
+    }
+
+    @Test
+    void testBulkGrantPermissions_InvalidItem() throws Exception {
+        BulkGrantRequest request = new BulkGrantRequest(Arrays.asList(new BulkGrantItem(1L, " ", Permission.READ)));
+
+        mockMvc.perform(post("/documents/grants")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
     }
 
     @Test
@@ -222,4 +474,59 @@ public class DocumentControllerTest {
                         .header("X-User", "   "))
                 .andExpect(status().is4xxClientError());
     }
+
+    @Test
+    void testGetAclChangesStreamsNdjsonWithResumeVersion() throws Exception {
+        when(aclChangeLog.changesSince(ADMIN, 4L, 1000)).thenReturn(Arrays.asList(
+                new AclChangeDto(5L, 1L, AclChangeType.GRANTED, "user1", Permission.READ),
+                new AclChangeDto(7L, 1L, AclChangeType.DELETED, null, null)));
+
+        MvcResult asyncResult = mockMvc.perform(get("/documents/acl-changes")
+                        .param("since", "4")
+                        .header("X-User", "admin"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Acl-Version", "7"))
+                .andExpect(content().string(
+                        "{\"version\":5,\"documentId\":1,\"type\":\"GRANTED\",\"username\":\"user1\",\"permission\":\"READ\"}\n" +
+                        "{\"version\":7,\"documentId\":1,\"type\":\"DELETED\",\"username\":null,\"permission\":null}\n"));
+    }
+
+    @Test
+    void testGetAclChangesCompactedReturnsGone() throws Exception {
+        when(aclChangeLog.changesSince(ADMIN, 0L, 1000)).thenThrow(new AclChangesCompactedException("compacted"));
+
+        mockMvc.perform(get("/documents/acl-changes")
+                        .param("since", "0")
+                        .header("X-User", "admin"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void testExportGetsItsOwnAsyncTimeout() throws Exception {
+        MvcResult exportResult = mockMvc.perform(get("/documents/export")
+                        .header("X-User", "admin"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult changesResult = mockMvc.perform(get("/documents/acl-changes")
+                        .param("since", "0")
+                        .header("X-User", "admin"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(Duration.ofMinutes(30).toMillis(), exportResult.getRequest().getAsyncContext().getTimeout());
+        assertNotEquals(Duration.ofMinutes(30).toMillis(), changesResult.getRequest().getAsyncContext().getTimeout());
+    }
+
+    private record BinaryAccessCheck(Permission permission, long[] ids) {
+        byte[] bytes() {
+            DeltaVarintCodec.Writer writer = new DeltaVarintCodec.Writer(16);
+            writer.writeByte(permission.getMask());
+            DeltaVarintCodec.writeIds(writer, ids);
+            return writer.toByteArray();
+        }
+    }
 }
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
 
 import java.util.Map;
 
@@ -62,6 +64,18 @@ class GlobalExceptionHandlerTest {
         assertTrue(response.getBody().get("message").toString().contains("X-User"));
     }
 
+    @Test
+    void testHandleNotReadableException() {
+        HttpMessageNotReadableException exception = new HttpMessageNotReadableException("Malformed access-check body",
+                new MockHttpInputMessage(new byte[0]));
+
+        ResponseEntity<Map<String, Object>> response = exceptionHandler.handleNotReadable(exception);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("Malformed access-check body", response.getBody().get("message"));
+    }
+
     @Test
     void testHandleGenericException() {
         Exception exception = new Exception("Unexpected error");
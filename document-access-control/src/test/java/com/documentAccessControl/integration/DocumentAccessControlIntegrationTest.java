@@ -2,8 +2,15 @@ package com.documentAccessControl.integration;
 
 import com.documentAccessControl.dto.*;
 import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.entity.AclChangeType;
 import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.repository.UserRepository;
+import com.documentAccessControl.service.AclChangeLog;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,19 +19,25 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@SpringBootTest
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "document.acl-changes.enabled=true", "document.acl-changes.settle=0s", "document.search-index.enabled=true"})
 @AutoConfigureMockMvc
 public class DocumentAccessControlIntegrationTest {
 
@@ -37,6 +50,18 @@ public class DocumentAccessControlIntegrationTest {
     @Autowired
     private DocumentRepository documentRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AclChangeLog aclChangeLog;
+
     private CreateDocumentRequest createDocumentRequest;
 
     @BeforeEach
@@ -109,6 +134,74 @@ public class DocumentAccessControlIntegrationTest {
                 .andExpect(jsonPath("$.accessibleUsers", hasSize(1)));
     }
 
+    @Test
+    void testReadsByUnknownUserDoNotRegisterIt() throws Exception {
+        MvcResult createResult = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        DocumentDto created = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto.class);
+
+        mockMvc.perform(get("/documents")
+                        .header("X-User", "drive-by"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/documents/" + created.getId())
+                        .header("X-User", "drive-by"))
+                .andExpect(status().isForbidden());
+        assertTrue(userRepository.findByUsername("drive-by").isEmpty());
+
+        GrantPermissionRequest grantRequest = new GrantPermissionRequest();
+        grantRequest.setUsername("drive-by");
+        grantRequest.setPermission(Permission.READ);
+        mockMvc.perform(post("/documents/" + created.getId() + "/grant")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(grantRequest)))
+                .andExpect(status().isOk());
+
+        assertTrue(userRepository.findByUsername("drive-by").isPresent());
+        mockMvc.perform(get("/documents/" + created.getId())
+                        .header("X-User", "drive-by"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testSecondPermissionForSameUserIsMergedIntoOneRow() throws Exception {
+        MvcResult createResult = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        DocumentDto created = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto.class);
+
+        for (Permission permission : Arrays.asList(Permission.READ, Permission.DELETE)) {
+            mockMvc.perform(post("/documents/" + created.getId() + "/grant")
+                            .header("X-User", "admin")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new GrantPermissionRequest("user2", permission))))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/documents/" + created.getId())
+                        .header("X-User", "user2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessibleUsers", hasSize(2)));
+        assertEquals(1, documentRepository.findWithPermissionsById(created.getId()).get().getPermissions().size());
+
+        AccessCheckRequest checkRequest = new AccessCheckRequest(Permission.WRITE, new long[]{created.getId()});
+        mockMvc.perform(post("/documents/access-check")
+                        .header("X-User", "user2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(checkRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessibleIds", hasSize(0)));
+    }
+
     @Test
     void testListAccessibleDocuments() throws Exception {
         mockMvc.perform(post("/documents")
@@ -123,6 +216,149 @@ public class DocumentAccessControlIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    void testPaginateAccessibleDocuments() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(post("/documents")
+                            .header("X-User", "admin")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                    .andExpect(status().isCreated());
+        }
+
+        MvcResult firstPage = mockMvc.perform(get("/documents")
+                        .param("limit", "2")
+                        .header("X-User", "admin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents", hasSize(2)))
+                .andExpect(jsonPath("$.documents[0].content").doesNotExist())
+                .andReturn();
+
+        DocumentPageDto page = objectMapper.readValue(firstPage.getResponse().getContentAsString(), DocumentPageDto.class);
+
+        mockMvc.perform(get("/documents")
+                        .param("after", page.getNextCursor().toString())
+                        .param("limit", "2")
+                        .param("includeContent", "true")
+                        .header("X-User", "admin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents", hasSize(1)))
+                .andExpect(jsonPath("$.documents[0].content", is("Document content here...")))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void testExportAccessibleDocumentsAsNdjson() throws Exception {
+        UserPermissionDto userPerm = new UserPermissionDto("user1", Permission.READ);
+        createDocumentRequest.setAccessibleUsers(Arrays.asList(userPerm));
+        mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated());
+        createDocumentRequest.setAccessibleUsers(null);
+        mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated());
+
+        MvcResult asyncResult = mockMvc.perform(get("/documents/export")
+                        .header("X-User", "user1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(1, lines.length);
+        DocumentDto exported = objectMapper.readValue(lines[0], DocumentDto.class);
+        assertEquals("Document content here...", exported.getContent());
+        assertEquals(1, exported.getAccessibleUsers().size());
+    }
+
+    @Test
+    void testCreateDocumentsInBatch() throws Exception {
+        CreateDocumentRequest second = new CreateDocumentRequest();
+        second.setName("Second Document");
+        second.setFileType("txt");
+        second.setAccessibleUsers(Arrays.asList(new UserPermissionDto("user1", Permission.READ)));
+
+        MvcResult result = mockMvc.perform(post("/documents/batch")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkCreateDocumentRequest(Arrays.asList(createDocumentRequest, second)))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andReturn();
+
+        DocumentDto[] created = objectMapper.readValue(result.getResponse().getContentAsString(), DocumentDto[].class);
+        mockMvc.perform(get("/documents/" + created[0].getId())
+                        .header("X-User", "admin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").value(createDocumentRequest.getContent()));
+        mockMvc.perform(get("/documents")
+                        .header("X-User", "user1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(created[1].getId().intValue()));
+    }
+
+    @Test
+    void testBulkGrantPermissions() throws Exception {
+        MvcResult createResult = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        DocumentDto created = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto.class);
+        BulkGrantRequest request = new BulkGrantRequest(Arrays.asList(
+                new BulkGrantItem(created.getId(), "user1", Permission.READ),
+                new BulkGrantItem(created.getId(), "user1", Permission.READ),
+                new BulkGrantItem(0L, "user1", Permission.READ)
+        ));
+
+        mockMvc.perform(post("/documents/grants")
+                        .header("X-User", "user2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("ACCESS_DENIED"))
+                .andExpect(jsonPath("$.results[2].status").value("DOCUMENT_NOT_FOUND"));
+
+        mockMvc.perform(post("/documents/grants")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("GRANTED"))
+                .andExpect(jsonPath("$.results[1].status").value("ALREADY_GRANTED"))
+                .andExpect(jsonPath("$.results[2].status").value("DOCUMENT_NOT_FOUND"));
+
+        mockMvc.perform(get("/documents/" + created.getId())
+                        .header("X-User", "user1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessibleUsers.length()").value(1));
+
+        // a second permission for the same user merges into the existing row instead of hitting its unique key
+        mockMvc.perform(post("/documents/grants")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkGrantRequest(Arrays.asList(
+                                new BulkGrantItem(created.getId(), "user1", Permission.WRITE))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("GRANTED"));
+
+        mockMvc.perform(get("/documents/" + created.getId())
+                        .header("X-User", "user1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessibleUsers.length()").value(2));
+    }
+
     @Test
     void testDeleteDocument() throws Exception {
         MvcResult createResult = mockMvc.perform(post("/documents")
@@ -164,7 +400,7 @@ public class DocumentAccessControlIntegrationTest {
         DocumentDto doc2 = objectMapper.readValue(result2.getResponse().getContentAsString(), DocumentDto.class);
 
         AccessCheckRequest checkRequest = new AccessCheckRequest();
-        checkRequest.setDocumentIds(Arrays.asList(doc1.getId(), doc2.getId()));
+        checkRequest.setDocumentIds(new long[]{doc1.getId(), doc2.getId()});
         checkRequest.setPermission(Permission.READ);
 
         mockMvc.perform(post("/documents/access-check")
@@ -209,4 +445,342 @@ public class DocumentAccessControlIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void testAccessCheckAndPermissionMetricsAreRecorded() throws Exception {
+        MvcResult createResult = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        DocumentDto created = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto.class);
+        double deniedBefore = meterRegistry.get("document.permission.checks")
+                .tag("permission", "READ").tag("outcome", "deny").counter().count();
+
+        mockMvc.perform(get("/documents/" + created.getId())
+                        .header("X-User", "user1"))
+                .andExpect(status().isForbidden());
+
+        AccessCheckRequest checkRequest = new AccessCheckRequest(Permission.READ, new long[]{created.getId(), 0L});
+        mockMvc.perform(post("/documents/access-check")
+                        .header("X-User", "user1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(checkRequest)))
+                .andExpect(status().isOk());
+
+        assertEquals(deniedBefore + 1, meterRegistry.get("document.permission.checks")
+                .tag("permission", "READ").tag("outcome", "deny").counter().count());
+        assertTrue(meterRegistry.get("document.access.check.ids").summary().count() > 0);
+        assertTrue(meterRegistry.get("document.service").tag("method", "checkAccess").timer().count() > 0);
+        assertTrue(meterRegistry.get("spring.data.repository.invocations")
+                .tag("method", "findAccessibleDocumentIds").timer().count() > 0);
+    }
+
+    @Test
+    void testGroupGrantFollowsMembershipChanges() throws Exception {
+        String group = "reviewers-" + System.nanoTime();
+        MvcResult createResult = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long id = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto.class).getId();
+
+        mockMvc.perform(post("/groups")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateGroupRequest(group))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(put("/groups/" + group + "/members/user4").header("X-User", "admin"))
+                .andExpect(status().isNoContent());
+
+        GrantPermissionRequest grantRequest = new GrantPermissionRequest();
+        grantRequest.setGroup(group);
+        grantRequest.setPermission(Permission.READ);
+        mockMvc.perform(post("/documents/" + id + "/grant")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(grantRequest)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/groups/" + group + "/members/user5").header("X-User", "admin"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/groups/" + group).header("X-User", "admin"))
+                .andExpect(jsonPath("$.members", is(Arrays.asList("user4", "user5"))));
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user4"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/documents").header("X-User", "user5"))
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(post("/documents/access-check")
+                        .header("X-User", "user5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AccessCheckRequest(Permission.READ, new long[]{id}))))
+                .andExpect(jsonPath("$.accessibleIds", hasSize(1)));
+
+        mockMvc.perform(delete("/groups/" + group + "/members/user4").header("X-User", "admin"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user4"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/documents").header("X-User", "user4"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user5"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/groups")
+                        .header("X-User", "user5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateGroupRequest("other"))))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testFolderGrantIsInheritedAndFollowsMoves() throws Exception {
+        FolderDto root = createFolder("root", null);
+        FolderDto child = createFolder("child", root.getId());
+        FolderDto other = createFolder("other", null);
+        createDocumentRequest.setFolderId(child.getId());
+        MvcResult createResult = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.folderId", is(child.getId().intValue())))
+                .andReturn();
+        Long id = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto.class).getId();
+
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user6"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/folders/" + root.getId() + "/grant")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new GrantPermissionRequest("user6", Permission.READ))))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user6"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/documents").header("X-User", "user6"))
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/documents").param("limit", "10").header("X-User", "user6"))
+                .andExpect(jsonPath("$.documents", hasSize(1)));
+        mockMvc.perform(post("/documents/access-check")
+                        .header("X-User", "user6")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AccessCheckRequest(Permission.READ, new long[]{id}))))
+                .andExpect(jsonPath("$.accessibleIds", hasSize(1)));
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user7"))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(put("/folders/" + root.getId() + "/parent")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MoveFolderRequest(child.getId()))))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/folders/" + child.getId() + "/parent")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MoveFolderRequest(other.getId()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parentId", is(other.getId().intValue())));
+
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user6"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/documents").header("X-User", "user6"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(post("/folders")
+                        .header("X-User", "user6")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateFolderRequest("mine", null))))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testConditionalGetReturnsNotModifiedUntilDocumentChanges() throws Exception {
+        createDocumentRequest.setAccessibleUsers(Arrays.asList(new UserPermissionDto("user1", Permission.READ)));
+        MvcResult createResult = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long id = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto.class).getId();
+
+        String documentEtag = mockMvc.perform(get("/documents/" + id).header("X-User", "user1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String listEtag = mockMvc.perform(get("/documents").header("X-User", "user1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(documentEtag);
+        assertTrue(listEtag.startsWith("W/"));
+
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user1").header("If-None-Match", documentEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/documents").header("X-User", "user1").header("If-None-Match", listEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/documents/" + id).header("X-User", "user2").header("If-None-Match", documentEtag))
+                .andExpect(status().isForbidden());
+
+        String granted = mockMvc.perform(post("/documents/" + id + "/grant")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new GrantPermissionRequest("user2", Permission.READ))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        String newEtag = mockMvc.perform(get("/documents/" + id).header("X-User", "user1").header("If-None-Match", documentEtag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessibleUsers", hasSize(2)))
+                .andReturn().getResponse().getHeader("ETag");
+        assertTrue(!documentEtag.equals(newEtag));
+        assertEquals(granted, newEtag);
+        mockMvc.perform(get("/documents").header("X-User", "user1").header("If-None-Match", listEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testAclChangeFeedReturnsMutationsInVersionOrder() throws Exception {
+        long since = aclChangeLog.currentVersion();
+        createDocumentRequest.setAccessibleUsers(Arrays.asList(new UserPermissionDto("user1", Permission.READ)));
+        MvcResult createResult = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDocumentRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long id = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto.class).getId();
+        mockMvc.perform(post("/documents/" + id + "/grant")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new GrantPermissionRequest("user2", Permission.WRITE))))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/documents/" + id).header("X-User", "admin"))
+                .andExpect(status().isNoContent());
+
+        List<AclChangeDto> changes = aclChanges(since);
+
+        assertEquals(Arrays.asList(AclChangeType.CREATED, AclChangeType.GRANTED, AclChangeType.GRANTED, AclChangeType.DELETED),
+                changes.stream().map(AclChangeDto::getType).toList());
+        assertEquals(Arrays.asList("admin", "user1", "user2", null),
+                changes.stream().map(AclChangeDto::getUsername).toList());
+        assertTrue(changes.stream().allMatch(change -> change.getDocumentId().equals(id)));
+        assertTrue(aclChanges(changes.get(changes.size() - 1).getVersion()).isEmpty());
+        mockMvc.perform(get("/documents/acl-changes").param("since", "0").header("X-User", "user1"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testSearchRanksOnlyReadableDocumentsAndFollowsDeletes() throws Exception {
+        Long report = createSearchable("Zephyr quarterly report", "zephyr figures and more zephyr figures", "user1");
+        Long notes = createSearchable("Offsite notes", "zephyr came up once", "user1");
+        Long secret = createSearchable("Zephyr secret plan", "zephyr zephyr zephyr", "user2");
+
+        assertEquals(Arrays.asList(report, notes), searchIds("user1", "zephyr"));
+        assertEquals(Arrays.asList(secret, report, notes), searchIds("admin", "ZEPHYR"));
+        assertEquals(Arrays.asList(notes), searchIds("user1", "offsite"));
+
+        mockMvc.perform(delete("/documents/" + report).header("X-User", "admin"))
+                .andExpect(status().isNoContent());
+
+        assertEquals(Arrays.asList(notes), searchIds("user1", "zephyr"));
+        mockMvc.perform(get("/documents/search").param("q", "!!").header("X-User", "user1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStatementCountPerEndpointDoesNotGrowWithDocuments() throws Exception {
+        List<CreateDocumentRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            CreateDocumentRequest request = new CreateDocumentRequest();
+            request.setName("Document " + i);
+            request.setFileType("txt");
+            request.setContent("content " + i);
+            List<UserPermissionDto> accessibleUsers = new ArrayList<>(Arrays.asList(new UserPermissionDto("user1", Permission.READ),
+                    new UserPermissionDto("user2", Permission.WRITE)));
+            // receiving a grant registers user3, so the grant counted below does not pay for that
+            if (i > 0) {
+                accessibleUsers.add(new UserPermissionDto("user3", Permission.READ));
+            }
+            request.setAccessibleUsers(accessibleUsers);
+            requests.add(request);
+        }
+        MvcResult createResult = mockMvc.perform(post("/documents/batch")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkCreateDocumentRequest(requests))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long id = objectMapper.readValue(createResult.getResponse().getContentAsString(), DocumentDto[].class)[0].getId();
+
+        assertEquals(1, statementsFor(get("/documents").header("X-User", "admin")));
+        assertEquals(1, statementsFor(get("/documents").header("X-User", "user1")));
+        assertEquals(2, statementsFor(get("/documents/" + id).header("X-User", "user1")));
+        assertEquals(3, statementsFor(get("/documents/" + id + "/content").header("X-User", "user1")));
+        // the grant reads the revision back after bumping it
+        assertEquals(6, statementsFor(post("/documents/" + id + "/grant").header("X-User", "user2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new GrantPermissionRequest("user3", Permission.READ)))));
+        assertEquals(3, statementsFor(delete("/documents/" + id).header("X-User", "admin")));
+    }
+
+    private List<AclChangeDto> aclChanges(long since) throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get("/documents/acl-changes")
+                        .param("since", Long.toString(since))
+                        .header("X-User", "admin"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<AclChangeDto> changes = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (!line.isEmpty()) {
+                changes.add(objectMapper.readValue(line, AclChangeDto.class));
+            }
+        }
+        return changes;
+    }
+
+    private Long createSearchable(String name, String content, String reader) throws Exception {
+        CreateDocumentRequest request = new CreateDocumentRequest();
+        request.setName(name);
+        request.setContent(content);
+        request.setFileType("txt");
+        request.setAccessibleUsers(Arrays.asList(new UserPermissionDto(reader, Permission.READ)));
+        MvcResult result = mockMvc.perform(post("/documents")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), DocumentDto.class).getId();
+    }
+
+    private List<Long> searchIds(String username, String query) throws Exception {
+        MvcResult result = mockMvc.perform(get("/documents/search").param("q", query).header("X-User", username))
+                .andExpect(status().isOk())
+                .andReturn();
+        return Arrays.stream(objectMapper.readValue(result.getResponse().getContentAsString(), SearchHitDto[].class))
+                .map(SearchHitDto::getId)
+                .toList();
+    }
+
+    private FolderDto createFolder(String name, Long parentId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/folders")
+                        .header("X-User", "admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateFolderRequest(name, parentId))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), FolderDto.class);
+    }
+
+    private long statementsFor(RequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+        return statistics.getPrepareStatementCount();
+    }
 }
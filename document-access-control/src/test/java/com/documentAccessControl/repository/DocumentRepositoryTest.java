@@ -1,23 +1,39 @@
 package com.documentAccessControl.repository;
 
+import com.documentAccessControl.dto.DocumentDto;
+import com.documentAccessControl.dto.ListFingerprint;
 import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentContent;
+import com.documentAccessControl.entity.DocumentEffectivePermission;
 import com.documentAccessControl.entity.DocumentPermission;
 import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.entity.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.documentAccessControl.repository.DocumentRepositoryTest$RecordingStatementInspector")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
 @ActiveProfiles("test")
 public class DocumentRepositoryTest {
@@ -27,14 +43,25 @@ public class DocumentRepositoryTest {
     @Autowired
     private DocumentRepository documentRepository;
 
+    @Autowired
+    private DocumentContentRepository documentContentRepository;
+
+    @Autowired
+    private DocumentEffectivePermissionRepository documentEffectivePermissionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Document testDocument;
 
     @BeforeEach
     void setUp(){
         testDocument = new Document("Test Document",
-                "Document content here...",
                 "csv",
-                "admin");
+                1);
     }
 
     @Test
@@ -85,8 +112,8 @@ public class DocumentRepositoryTest {
     }
     @Test
     void testFindAll() {
-        Document doc1 = new Document("Doc1", "Content1", "pdf", "admin");
-        Document doc2 = new Document("Doc2", "Content2", "txt", "admin");
+        Document doc1 = new Document("Doc1", "pdf", 1);
+        Document doc2 = new Document("Doc2", "txt", 1);
 
         documentRepository.save(doc1);
         documentRepository.save(doc2);
@@ -98,7 +125,7 @@ public class DocumentRepositoryTest {
 
     @Test
     void testDocumentWithPermissions() {
-        DocumentPermission permission = new DocumentPermission("user1", Permission.READ);
+        DocumentPermission permission = new DocumentPermission(2, Permission.READ);
         testDocument.addPermission(permission);
 
         Document saved = documentRepository.save(testDocument);
@@ -111,32 +138,174 @@ public class DocumentRepositoryTest {
 
     @Test
     void testFindDocumentsWithPermission() {
-        Document doc = new Document("Shared Doc", "Content", "pdf", "user1");
-        DocumentPermission permission = new DocumentPermission("user2", Permission.READ);
+        Document doc = new Document("Shared Doc", "pdf", 2);
+        DocumentPermission permission = new DocumentPermission(3, Permission.READ);
         doc.addPermission(permission);
 
-        documentRepository.save(doc);
+        Document saved = documentRepository.save(doc);
+        documentEffectivePermissionRepository.save(new DocumentEffectivePermission(saved, 3, Permission.READ));
         entityManager.flush();
 
-        List<Document> found = documentRepository.findDocumentsWithPermission("user2", Permission.READ);
+        List<Document> found = documentRepository.findDocumentsWithPermission(3, Permission.READ);
         assertTrue(found.size() > 0);
     }
 
     @Test
     void testFindAccessibleDocumentIds() {
-        Document doc = new Document("Test", "Content", "pdf", "user1");
-        DocumentPermission permission = new DocumentPermission("user2", Permission.READ);
+        Document doc = new Document("Test", "pdf", 2);
+        DocumentPermission permission = new DocumentPermission(3, Permission.READ);
         doc.addPermission(permission);
 
         Document saved = documentRepository.save(doc);
+        documentEffectivePermissionRepository.save(new DocumentEffectivePermission(saved, 3, Permission.READ));
         entityManager.flush();
 
         List<Long> ids = documentRepository.findAccessibleDocumentIds(
-                "user2", Permission.READ, List.of(saved.getId())
+                3, Permission.READ, List.of(saved.getId())
         );
 
         assertTrue(ids.contains(saved.getId()));
     }
 
+    @Test
+    void testFindAllPermissionEntries() {
+        testDocument.addPermission(new DocumentPermission(2, Permission.WRITE));
+        Document saved = documentRepository.save(testDocument);
+        entityManager.flush();
 
+        List<Object[]> entries = documentRepository.findAllPermissionEntries();
+        assertTrue(entries.stream().anyMatch(e -> saved.getId().equals(e[0])
+                && Integer.valueOf(2).equals(e[1]) && Integer.valueOf(Permission.WRITE.getMask()).equals(e[2])));
+    }
+
+    @Test
+    void testPermissionsForOneUserShareOneRow() {
+        testDocument.grant(2, Permission.READ);
+        testDocument.grant(2, Permission.DELETE);
+        Document saved = documentRepository.save(testDocument);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(1, documentRepository.findById(saved.getId()).get().getPermissions().size());
+        assertEquals(Permission.READ.getMask() | Permission.DELETE.getMask(),
+                documentRepository.findById(saved.getId()).get().getPermissions().get(0).getPermissionMask());
+    }
+
+    @Test
+    void testEffectivePermissionsAreRemovedWithDocument() {
+        Document saved = documentRepository.save(testDocument);
+        documentEffectivePermissionRepository.save(new DocumentEffectivePermission(saved, 2, Permission.READ));
+        entityManager.flush();
+        entityManager.clear();
+
+        documentRepository.deleteById(saved.getId());
+        entityManager.flush();
+
+        assertTrue(documentRepository.findAccessibleDocumentIds(2, Permission.READ, List.of(saved.getId())).isEmpty());
+        assertEquals(0, documentEffectivePermissionRepository.count());
+    }
+
+    @Test
+    void testListFingerprintQueryMatchesFingerprintOfLoadedList() {
+        Document first = documentRepository.save(testDocument);
+        Document second = documentRepository.save(new Document("Second", "pdf", 1));
+        entityManager.flush();
+        documentRepository.incrementRevisions(List.of(second.getId()));
+        entityManager.clear();
+
+        List<DocumentDto> listing = new ArrayList<>();
+        for (Document document : documentRepository.findAll()) {
+            DocumentDto documentDto = new DocumentDto(document.getId(), document.getName(), document.getFileType());
+            documentDto.setRevision(document.getRevision());
+            listing.add(documentDto);
+        }
+
+        assertEquals(ListFingerprint.of(listing), documentRepository.findListFingerprint());
+        assertNotEquals(ListFingerprint.of(List.of(new DocumentDto(3L, "a", "txt"), new DocumentDto(7L, "b", "txt"))),
+                ListFingerprint.of(List.of(new DocumentDto(4L, "a", "txt"), new DocumentDto(6L, "b", "txt"))));
+    }
+
+    @Test
+    void testAccessLookupReadsAclTablesThroughIndexes() {
+        int userId = 2;
+        Document saved = documentRepository.save(testDocument);
+        documentEffectivePermissionRepository.save(new DocumentEffectivePermission(saved, userId, Permission.READ));
+        entityManager.flush();
+
+        RecordingStatementInspector.STATEMENTS.clear();
+        assertEquals(List.of(saved.getId()), documentRepository.findAccessibleDocumentIds(userId, Permission.READ, List.of(saved.getId())));
+        assertEquals(1, RecordingStatementInspector.STATEMENTS.size(), RecordingStatementInspector.STATEMENTS.toString());
+        String sql = RecordingStatementInspector.STATEMENTS.get(0);
+        // bound in the order the query declares them, so EXPLAIN plans the statement with these literal values
+        Object[] parameters = {userId, Permission.READ.name(), saved.getId(), saved.getId(), userId, Permission.READ.name()};
+        assertEquals(parameters.length, sql.chars().filter(c -> c == '?').count(), sql);
+
+        Map<String, String> tablesByAlias = new HashMap<>();
+        Matcher from = Pattern.compile("(?i)\\b(?:from|join)\\s+(\\w+)\\s+(\\w+)").matcher(sql);
+        while (from.find()) {
+            tablesByAlias.put(from.group(2), from.group(1));
+        }
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, parameters);
+
+        if (plan.get(0).containsKey("PLAN")) {
+            // H2 returns the whole plan as one row, naming the index it picked for each table in a comment
+            String text = plan.get(0).get("PLAN").toString().toLowerCase();
+            assertFalse(text.contains("tablescan"), text);
+            assertTrue(Pattern.compile("document_effective_permission\" \"\\w+\"\\s*/\\* public\\."
+                    + "(primary_key_\\w+|idx_effective_permission_lookup):").matcher(text).find(), text);
+            return;
+        }
+        // MySQL returns a row per table access; union results and const rows without a match have no known alias
+        boolean effectiveTableRead = false;
+        for (Map<String, Object> row : plan) {
+            String table = tablesByAlias.get(String.valueOf(row.get("table")));
+            if (table == null) {
+                continue;
+            }
+            assertNotEquals("ALL", row.get("type"), row.toString());
+            assertNotNull(row.get("key"), row.toString());
+            if (table.equals("document_effective_permission")) {
+                assertTrue(Set.of("PRIMARY", "idx_effective_permission_lookup").contains(row.get("key")), row.toString());
+                effectiveTableRead = true;
+            }
+        }
+        assertTrue(effectiveTableRead, plan.toString());
+    }
+
+    @Test
+    void testContentIsStoredSeparatelyAndDeletedWithDocument() {
+        Document saved = documentRepository.save(testDocument);
+        documentContentRepository.save(new DocumentContent(saved, "Document content here..."));
+        entityManager.flush();
+        entityManager.clear();
+
+        Optional<DocumentContent> content = documentContentRepository.findById(saved.getId());
+        assertTrue(content.isPresent());
+        assertEquals("Document content here...", content.get().getContent());
+        entityManager.clear();
+
+        documentRepository.deleteById(saved.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertFalse(documentContentRepository.findById(saved.getId()).isPresent());
+    }
+
+    @Test
+    void testUsernamesAreUnique() {
+        User saved = userRepository.saveAndFlush(new User("user1"));
+
+        assertEquals(Optional.of(saved.getId()), userRepository.findByUsername("user1").map(User::getId));
+        assertThrows(DataIntegrityViolationException.class, () -> userRepository.saveAndFlush(new User("user1")));
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
 }
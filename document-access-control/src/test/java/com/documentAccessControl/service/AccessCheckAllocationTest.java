@@ -0,0 +1,103 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.AccessCheckRequest;
+import com.documentAccessControl.dto.AccessCheckResponse;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.metrics.DocumentMetrics;
+import com.documentAccessControl.repository.DocumentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Allocation profile of one access check on the ACL index path, from request JSON to response JSON, measured on
+ * the calling thread. The pipeline keeps ids in long arrays, so garbage per id must not grow with the id count.
+ */
+public class AccessCheckAllocationTest {
+    private static final CurrentUser ADMIN = new CurrentUser(1, "admin");
+    private static final CurrentUser USER1 = new CurrentUser(2, "user1");
+    private static final int DOCUMENT_COUNT = 200_000;
+    private static final int[] ID_COUNTS = {1_000, 10_000, 100_000};
+    // parsing, the sorted copy and dropping duplicates come to ~35 bytes; boxed ids cost well over 100
+    private static final double MAX_BYTES_PER_ID = 48;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private AccessCheckExecutor accessCheckExecutor;
+    private DocumentService documentService;
+
+    @BeforeEach
+    void setUp() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        DocumentRepository documentRepository = mock(DocumentRepository.class);
+        List<Object[]> owners = new ArrayList<>(DOCUMENT_COUNT);
+        for (long id = 1; id <= DOCUMENT_COUNT; id++) {
+            owners.add(new Object[]{id, USER1.id()});
+        }
+        when(documentRepository.findAllDocumentOwners()).thenReturn(owners);
+        DocumentAclIndex documentAclIndex = new DocumentAclIndex(documentRepository, true);
+        documentAclIndex.load();
+
+        // one chunk, so the whole check runs on the measured thread
+        accessCheckExecutor = new AccessCheckExecutor(DOCUMENT_COUNT, DOCUMENT_COUNT, 1, 1, new SimpleMeterRegistry());
+        documentService = new DocumentService(null, null, null, null, null, null, documentAclIndex, null, null,
+                accessCheckExecutor, null, null, null, null, null, new DocumentMetrics(new SimpleMeterRegistry()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (accessCheckExecutor != null) {
+            accessCheckExecutor.shutdown();
+        }
+    }
+
+    @Test
+    void testGarbagePerIdStaysFlatAsIdCountGrows() throws Exception {
+        for (CurrentUser user : new CurrentUser[]{ADMIN, USER1}) {
+            double smallest = bytesPerId(user, ID_COUNTS[0]);
+            for (int idCount : ID_COUNTS) {
+                double perId = bytesPerId(user, idCount);
+                assertTrue(perId <= MAX_BYTES_PER_ID, user.username() + " allocated " + perId + " bytes per id at " + idCount + " ids");
+                // fixed per-request overhead only shrinks per id as requests grow
+                assertTrue(perId <= smallest + 12, user.username() + " allocated " + perId + " bytes per id at " + idCount
+                        + " ids against " + smallest + " at " + ID_COUNTS[0]);
+            }
+        }
+    }
+
+    private double bytesPerId(CurrentUser user, int idCount) throws Exception {
+        Random random = new Random(idCount);
+        long[] ids = new long[idCount];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + random.nextInt(DOCUMENT_COUNT);
+        }
+        byte[] json = objectMapper.writeValueAsBytes(new AccessCheckRequest(Permission.READ, ids));
+
+        long fewest = Long.MAX_VALUE;
+        for (int run = 0; run < 20; run++) {
+            long before = threadMXBean.getCurrentThreadAllocatedBytes();
+            AccessCheckResponse response = documentService.checkAccess(user, objectMapper.readValue(json, AccessCheckRequest.class));
+            objectMapper.writeValue(OutputStream.nullOutputStream(), response);
+            fewest = Math.min(fewest, threadMXBean.getCurrentThreadAllocatedBytes() - before);
+        }
+        return (double) fewest / idCount;
+    }
+}
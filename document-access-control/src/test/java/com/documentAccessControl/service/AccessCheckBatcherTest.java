@@ -0,0 +1,122 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.metrics.DocumentMetrics;
+import com.documentAccessControl.repository.DocumentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AccessCheckBatcherTest {
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentRepository documentRepository;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        documentRepository = mock(DocumentRepository.class);
+        when(documentRepository.findAccessibleDocumentIds(anyInt(), any(), any())).thenAnswer(invocation -> {
+            List<Long> accessible = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(2)) {
+                if (id % 2 == 0) {
+                    accessible.add(id);
+                }
+            }
+            return accessible;
+        });
+    }
+
+    @Test
+    void testDisabledBatcherQueriesDirectly() {
+        AccessCheckBatcher batcher = batcher(false, Duration.ofSeconds(5), 64);
+
+        assertEquals(Arrays.asList(2L), batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L)));
+        verify(documentRepository, times(1)).findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L));
+    }
+
+    @Test
+    void testConcurrentLookupsForSameUserShareOneQuery() throws Exception {
+        AccessCheckBatcher batcher = batcher(true, Duration.ofSeconds(5), 3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<List<Long>> first = executor.submit(() -> batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L)));
+            Future<List<Long>> second = executor.submit(() -> batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(4L, 3L, 4L)));
+            Future<List<Long>> third = executor.submit(() -> batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(5L)));
+
+            assertEquals(Arrays.asList(2L), first.get(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(4L), second.get(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(), third.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(documentRepository, times(1)).findAccessibleDocumentIds(eq(2), eq(Permission.READ),
+                argThat(ids -> ids.size() == 5 && ids.containsAll(Arrays.asList(1L, 2L, 3L, 4L, 5L))));
+        assertEquals(3.0, meterRegistry.get("document.access.check.batch.requests").summary().totalAmount());
+    }
+
+    @Test
+    void testBatchClosesOnceItHoldsChunkSizeIds() throws Exception {
+        AccessCheckBatcher batcher = batcher(true, Duration.ofSeconds(1), 64, 4);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<List<Long>> first = executor.submit(() -> batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L)));
+            Future<List<Long>> second = executor.submit(() -> batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(3L, 4L)));
+            Future<List<Long>> third = executor.submit(() -> batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(5L, 6L)));
+
+            assertEquals(Arrays.asList(2L), first.get(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(4L), second.get(5, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(6L), third.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        // whichever two callers arrive first fill the batch to chunk-size and run at once; the third cannot fit
+        List<Collection<Long>> queries = mockingDetails(documentRepository).getInvocations().stream()
+                .map(invocation -> invocation.<Collection<Long>>getArgument(2))
+                .toList();
+        assertEquals(2, queries.size(), queries.toString());
+        assertTrue(queries.stream().anyMatch(ids -> ids.size() == 4), queries.toString());
+        assertTrue(queries.stream().allMatch(ids -> ids.size() <= 4), queries.toString());
+    }
+
+    @Test
+    void testWindowExpiryFlushesPartialBatch() {
+        AccessCheckBatcher batcher = batcher(true, Duration.ofMillis(1), 64);
+
+        assertEquals(Arrays.asList(2L), batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L)));
+        assertEquals(Arrays.asList(4L), batcher.findAccessibleDocumentIds(3, Permission.READ, Arrays.asList(4L)));
+        verify(documentRepository, times(2)).findAccessibleDocumentIds(anyInt(), any(), any());
+    }
+
+    @Test
+    void testQueryFailureReachesEveryCaller() {
+        reset(documentRepository);
+        when(documentRepository.findAccessibleDocumentIds(anyInt(), any(), any())).thenThrow(new IllegalStateException("database down"));
+        AccessCheckBatcher batcher = batcher(true, Duration.ofMillis(1), 64);
+
+        assertThrows(IllegalStateException.class, () -> batcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L)));
+    }
+
+    private AccessCheckBatcher batcher(boolean enabled, Duration window, int maxRequests) {
+        return batcher(enabled, window, maxRequests, 1000);
+    }
+
+    private AccessCheckBatcher batcher(boolean enabled, Duration window, int maxRequests, int maxIds) {
+        return new AccessCheckBatcher(documentRepository, new DocumentMetrics(meterRegistry), enabled, window, maxRequests, maxIds);
+    }
+}
@@ -0,0 +1,98 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.AccessCheckRequest;
+import com.documentAccessControl.dto.AccessCheckResponse;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.exception.AccessDeniedException;
+import com.documentAccessControl.metrics.DocumentMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AccessCheckCoalescerTest {
+    private static final CurrentUser USER1 = new CurrentUser(2, "user1");
+    private static final CurrentUser USER2 = new CurrentUser(3, "user2");
+
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentService documentService;
+    private AccessCheckCoalescer accessCheckCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        documentService = mock(DocumentService.class);
+        accessCheckCoalescer = new AccessCheckCoalescer(documentService, new DocumentMetrics(meterRegistry));
+    }
+
+    @Test
+    void testConcurrentIdenticalChecksShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AccessCheckResponse response = new AccessCheckResponse(new long[]{1L});
+        when(documentService.checkAccess(eq(USER1), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return response;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AccessCheckResponse> leader = executor.submit(() ->
+                    accessCheckCoalescer.checkAccess(USER1, new AccessCheckRequest(Permission.READ, new long[]{1L, 2L})));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<AccessCheckResponse> follower = executor.submit(() ->
+                    accessCheckCoalescer.checkAccess(USER1, new AccessCheckRequest(Permission.READ, new long[]{1L, 2L})));
+            while (coalescedCount() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertSame(response, leader.get(5, TimeUnit.SECONDS));
+            assertSame(response, follower.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(documentService, times(1)).checkAccess(eq(USER1), any());
+        assertEquals(1.0, meterRegistry.get("document.access.check.requests").tag("outcome", "executed").counter().count());
+    }
+
+    @Test
+    void testSequentialAndDifferentChecksAreNotCoalesced() {
+        when(documentService.checkAccess(any(), any())).thenReturn(new AccessCheckResponse(new long[]{1L}));
+
+        accessCheckCoalescer.checkAccess(USER1, new AccessCheckRequest(Permission.READ, new long[]{1L}));
+        accessCheckCoalescer.checkAccess(USER1, new AccessCheckRequest(Permission.READ, new long[]{1L}));
+        accessCheckCoalescer.checkAccess(USER1, new AccessCheckRequest(Permission.WRITE, new long[]{1L}));
+        accessCheckCoalescer.checkAccess(USER2, new AccessCheckRequest(Permission.READ, new long[]{1L}));
+
+        verify(documentService, times(4)).checkAccess(any(), any());
+        assertEquals(0.0, coalescedCount());
+    }
+
+    @Test
+    void testFailureIsRethrownAndNotRemembered() {
+        when(documentService.checkAccess(eq(USER1), any()))
+                .thenThrow(new AccessDeniedException("denied"))
+                .thenReturn(new AccessCheckResponse(new long[]{1L}));
+        AccessCheckRequest request = new AccessCheckRequest(Permission.READ, new long[]{1L});
+
+        assertThrows(AccessDeniedException.class, () -> accessCheckCoalescer.checkAccess(USER1, request));
+        assertArrayEquals(new long[]{1L}, accessCheckCoalescer.checkAccess(USER1, request).getAccessibleIds());
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get("document.access.check.requests").tag("outcome", "coalesced").counter().count();
+    }
+}
@@ -0,0 +1,115 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.AclChangeDto;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.AclChangeType;
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.exception.AccessDeniedException;
+import com.documentAccessControl.exception.AclChangesCompactedException;
+import com.documentAccessControl.repository.AclChangeRepository;
+import com.documentAccessControl.repository.AclChangeRepository.Change;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class AclChangeLogTest {
+    private static final CurrentUser ADMIN = new CurrentUser(1, "admin");
+
+    private AclChangeRepository aclChangeRepository;
+    private UserDictionary userDictionary;
+    private AclChangeLog aclChangeLog;
+
+    @BeforeEach
+    void setUp() {
+        aclChangeRepository = mock(AclChangeRepository.class);
+        userDictionary = new UserDictionary(null, null, 100);
+        userDictionary.remember(1, "admin");
+        userDictionary.remember(2, "user1");
+        aclChangeLog = new AclChangeLog(aclChangeRepository, userDictionary, true, 100, 3, Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testChangesInTransactionAreAppendedInOneBatchBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        Document document = new Document("Doc", "pdf", 1);
+        document.setId(10L);
+        document.grant(2, Permission.READ);
+
+        aclChangeLog.documentCreated(document);
+        aclChangeLog.permissionGranted(10L, 2, Permission.WRITE);
+        verifyNoInteractions(aclChangeRepository);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+
+        verify(aclChangeRepository).append(eq(Arrays.asList(
+                new Change(10L, AclChangeType.CREATED, 1, null),
+                new Change(10L, AclChangeType.GRANTED, 2, Permission.READ),
+                new Change(10L, AclChangeType.GRANTED, 2, Permission.WRITE))), any());
+        assertNull(TransactionSynchronizationManager.getResource(aclChangeLog));
+    }
+
+    @Test
+    void testCompactsWhenAppendsCrossTheInterval() {
+        when(aclChangeRepository.findLatestVersion()).thenReturn(250L);
+
+        aclChangeLog.documentDeleted(1L);
+        aclChangeLog.documentDeleted(2L);
+        verify(aclChangeRepository, never()).deleteUpTo(anyLong());
+
+        aclChangeLog.documentDeleted(3L);
+        verify(aclChangeRepository).deleteUpTo(150L);
+    }
+
+    @Test
+    void testChangesSinceStopsAtFirstUnsettledChange() {
+        LocalDateTime settled = LocalDateTime.now().minusMinutes(1);
+        when(aclChangeRepository.findOldestVersion()).thenReturn(1L);
+        when(aclChangeRepository.findChangesAfter(4L, 10)).thenReturn(Arrays.asList(
+                new Change(5L, 10L, AclChangeType.GRANTED, 2, Permission.READ, settled),
+                new Change(6L, 10L, AclChangeType.REVOKED, 2, Permission.READ, LocalDateTime.now()),
+                new Change(7L, 11L, AclChangeType.DELETED, null, null, settled)));
+
+        List<AclChangeDto> changes = aclChangeLog.changesSince(ADMIN, 4L, 10);
+
+        assertEquals(1, changes.size());
+        assertEquals(5L, changes.get(0).getVersion());
+        assertEquals("user1", changes.get(0).getUsername());
+    }
+
+    @Test
+    void testChangesSinceCompactedVersionIsGone() {
+        when(aclChangeRepository.findOldestVersion()).thenReturn(50L);
+
+        assertThrows(AclChangesCompactedException.class, () -> aclChangeLog.changesSince(ADMIN, 10L, 10));
+        assertDoesNotThrow(() -> aclChangeLog.changesSince(ADMIN, 49L, 10));
+    }
+
+    @Test
+    void testOnlyAdminReadsChanges() {
+        assertThrows(AccessDeniedException.class, () -> aclChangeLog.changesSince(new CurrentUser(2, "user1"), 0L, 10));
+        verifyNoInteractions(aclChangeRepository);
+    }
+}
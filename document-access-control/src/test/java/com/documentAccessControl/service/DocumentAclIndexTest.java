@@ -0,0 +1,125 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentPermission;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.repository.DocumentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentAclIndexTest {
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private DocumentAclIndex documentAclIndex;
+
+    @BeforeEach
+    void setUp() {
+        documentAclIndex = new DocumentAclIndex(documentRepository, true);
+        when(documentRepository.findAllDocumentOwners()).thenReturn(Arrays.asList(
+                new Object[]{1L, 1},
+                new Object[]{2L, 2},
+                new Object[]{3L, 1}));
+        when(documentRepository.findAllPermissionEntries()).thenReturn(Collections.singletonList(
+                new Object[]{3L, 2, Permission.READ.getMask()}));
+        when(documentRepository.findAllGroupMemberPermissionEntries()).thenReturn(Collections.singletonList(
+                new Object[]{1L, 3, Permission.READ.getMask()}));
+        documentAclIndex.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testLoadMarksIndexReady() {
+        assertTrue(documentAclIndex.isReady());
+        assertFalse(new DocumentAclIndex(documentRepository, false).isReady());
+    }
+
+    @Test
+    void testFindAccessibleDocumentIdsCombinesOwnerAndGrants() {
+        long[] ids = documentAclIndex.findAccessibleDocumentIds(2, Permission.READ, new long[]{3L, 1L, 2L, 99L});
+
+        assertArrayEquals(new long[]{3L, 2L}, ids);
+        assertArrayEquals(new long[]{2L},
+                documentAclIndex.findAccessibleDocumentIds(2, Permission.WRITE, new long[]{1L, 2L, 3L}));
+    }
+
+    @Test
+    void testFindExistingDocumentIds() {
+        assertArrayEquals(new long[]{3L, 1L}, documentAclIndex.findExistingDocumentIds(new long[]{3L, 1L, 42L}));
+    }
+
+    @Test
+    void testFullyAccessibleLookupReturnsTheRequestedArray() {
+        long[] ids = {1L, 3L};
+
+        assertSame(ids, documentAclIndex.findAccessibleDocumentIds(1, Permission.READ, ids));
+        assertSame(ids, documentAclIndex.findExistingDocumentIds(ids));
+    }
+
+    @Test
+    void testIndexFollowsCreateGrantAndDelete() {
+        Document document = new Document("Doc", "pdf", 1);
+        document.setId(4L);
+        document.addPermission(new DocumentPermission(3, Permission.READ));
+
+        documentAclIndex.documentCreated(document);
+        documentAclIndex.permissionGranted(4L, 3, Permission.DELETE);
+
+        assertArrayEquals(new long[]{4L}, documentAclIndex.findAccessibleDocumentIds(3, Permission.READ, new long[]{4L}));
+        assertArrayEquals(new long[]{4L}, documentAclIndex.findAccessibleDocumentIds(3, Permission.DELETE, new long[]{4L}));
+
+        document.grant(3, Permission.DELETE);
+        documentAclIndex.documentDeleted(document);
+
+        assertEquals(0, documentAclIndex.findAccessibleDocumentIds(3, Permission.READ, new long[]{4L}).length);
+        assertEquals(0, documentAclIndex.findExistingDocumentIds(new long[]{4L}).length);
+    }
+
+    @Test
+    void testChangesInTransactionApplyOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        Document document = new Document("Doc", "pdf", 3);
+        document.setId(5L);
+        documentAclIndex.documentCreated(document);
+        documentAclIndex.permissionGranted(2L, 3, Permission.READ);
+
+        assertEquals(0, documentAclIndex.findAccessibleDocumentIds(3, Permission.READ, new long[]{5L, 2L}).length);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertEquals(0, documentAclIndex.findAccessibleDocumentIds(3, Permission.READ, new long[]{5L, 2L}).length);
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertArrayEquals(new long[]{5L, 2L}, documentAclIndex.findAccessibleDocumentIds(3, Permission.READ, new long[]{5L, 2L}));
+    }
+
+    @Test
+    void testGroupGrantsAreLoadedAndCanBeRevoked() {
+        assertArrayEquals(new long[]{1L}, documentAclIndex.findAccessibleDocumentIds(3, Permission.READ, new long[]{1L, 2L}));
+
+        documentAclIndex.permissionRevoked(1L, 3, Permission.READ);
+
+        assertEquals(0, documentAclIndex.findAccessibleDocumentIds(3, Permission.READ, new long[]{1L, 2L}).length);
+    }
+}
@@ -0,0 +1,77 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.entity.Permission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DocumentDecisionCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentDecisionCache documentDecisionCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        documentDecisionCache = new DocumentDecisionCache(true, 1000, meterRegistry);
+    }
+
+    @Test
+    void testStoresAllowAndDenyDecisions() {
+        documentDecisionCache.put(2, 1L, Permission.READ, true, documentDecisionCache.epoch());
+        documentDecisionCache.put(2, 1L, Permission.DELETE, false, documentDecisionCache.epoch());
+
+        assertEquals(Boolean.TRUE, documentDecisionCache.get(2, 1L, Permission.READ));
+        assertEquals(Boolean.FALSE, documentDecisionCache.get(2, 1L, Permission.DELETE));
+        assertNull(documentDecisionCache.get(2, 1L, Permission.WRITE));
+        assertEquals(2, documentDecisionCache.stats().hitCount());
+        assertEquals(1, documentDecisionCache.stats().missCount());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "document.decisions").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    void testPermissionChangeInvalidatesOnlyThatDecision() {
+        documentDecisionCache.put(2, 1L, Permission.READ, false, documentDecisionCache.epoch());
+        documentDecisionCache.put(2, 1L, Permission.WRITE, false, documentDecisionCache.epoch());
+        documentDecisionCache.put(3, 1L, Permission.READ, false, documentDecisionCache.epoch());
+
+        documentDecisionCache.permissionChanged(1L, 2, Permission.READ);
+
+        assertNull(documentDecisionCache.get(2, 1L, Permission.READ));
+        assertEquals(Boolean.FALSE, documentDecisionCache.get(2, 1L, Permission.WRITE));
+        assertEquals(Boolean.FALSE, documentDecisionCache.get(3, 1L, Permission.READ));
+    }
+
+    @Test
+    void testDocumentDeletedInvalidatesAllDecisionsForDocument() {
+        documentDecisionCache.put(2, 1L, Permission.READ, true, documentDecisionCache.epoch());
+        documentDecisionCache.put(3, 1L, Permission.DELETE, false, documentDecisionCache.epoch());
+        documentDecisionCache.put(2, 2L, Permission.READ, true, documentDecisionCache.epoch());
+
+        documentDecisionCache.documentDeleted(1L);
+
+        assertNull(documentDecisionCache.get(2, 1L, Permission.READ));
+        assertNull(documentDecisionCache.get(3, 1L, Permission.DELETE));
+        assertEquals(Boolean.TRUE, documentDecisionCache.get(2, 2L, Permission.READ));
+    }
+
+    @Test
+    void testDecisionLoadedBeforeInvalidationIsNotKept() {
+        long epoch = documentDecisionCache.epoch();
+        documentDecisionCache.permissionChanged(1L, 2, Permission.READ);
+
+        documentDecisionCache.put(2, 1L, Permission.READ, false, epoch);
+
+        assertNull(documentDecisionCache.get(2, 1L, Permission.READ));
+    }
+
+    @Test
+    void testDisabledCacheStoresNothing() {
+        DocumentDecisionCache disabled = new DocumentDecisionCache(false, 1000, meterRegistry);
+        disabled.put(2, 1L, Permission.READ, true, disabled.epoch());
+
+        assertNull(disabled.get(2, 1L, Permission.READ));
+    }
+}
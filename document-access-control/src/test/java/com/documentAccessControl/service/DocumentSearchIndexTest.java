@@ -0,0 +1,157 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.DocumentDto;
+import com.documentAccessControl.dto.SearchHitDto;
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.storage.ContentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class DocumentSearchIndexTest {
+    private static final UnaryOperator<long[]> EVERYTHING = ids -> ids;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private ContentStore contentStore;
+
+    private DocumentSearchIndex documentSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        documentSearchIndex = new DocumentSearchIndex(documentRepository, contentStore, true);
+        when(documentRepository.findDocumentSummariesAfter(eq(0L), any())).thenReturn(Arrays.asList(
+                new DocumentDto(1L, "Budget report", "pdf"),
+                new DocumentDto(2L, "Meeting notes", "txt"),
+                new DocumentDto(3L, "Travel plan", "txt")));
+        when(contentStore.readAll(List.of(1L, 2L, 3L))).thenReturn(Map.of(
+                1L, "Budget figures for the quarter",
+                2L, "We discussed the budget, the roadmap and the budget again",
+                3L, "Flights and hotels"));
+        documentSearchIndex.load();
+    }
+
+    @Test
+    void testLoadMarksIndexReady() {
+        assertTrue(documentSearchIndex.isReady());
+        assertFalse(new DocumentSearchIndex(documentRepository, contentStore, false).isReady());
+    }
+
+    @Test
+    void testSearchRanksNameMatchesAboveContentMatches() {
+        List<SearchHitDto> hits = documentSearchIndex.search("budget", 10, EVERYTHING);
+
+        assertEquals(Arrays.asList(1L, 2L), ids(hits));
+        assertEquals("Budget report", hits.get(0).getName());
+        assertEquals("pdf", hits.get(0).getFileType());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void testDocumentsMatchingMoreTermsRankFirstAndLimitApplies() {
+        assertEquals(Arrays.asList(2L, 3L, 1L), ids(documentSearchIndex.search("roadmap, hotels & budget", 10, EVERYTHING)));
+        assertEquals(Collections.singletonList(2L), ids(documentSearchIndex.search("roadmap hotels budget", 1, EVERYTHING)));
+    }
+
+    @Test
+    void testAllowedFilterSeesCandidatesBestRankedFirst() {
+        List<long[]> offered = new ArrayList<>();
+        UnaryOperator<long[]> onlySecond = ids -> {
+            offered.add(ids);
+            return Arrays.stream(ids).filter(id -> id == 2L).toArray();
+        };
+
+        assertEquals(Collections.singletonList(2L), ids(documentSearchIndex.search("budget", 10, onlySecond)));
+        assertEquals(1, offered.size());
+        assertArrayEquals(new long[]{1L, 2L}, offered.get(0));
+    }
+
+    @Test
+    void testFilteringStopsOnceThePageIsFull() {
+        for (long id = 10; id < 2510; id++) {
+            Document document = new Document("Common " + id, "txt", 1);
+            document.setId(id);
+            documentSearchIndex.documentCreated(document, "shared words");
+        }
+        List<long[]> offered = new ArrayList<>();
+        UnaryOperator<long[]> recording = ids -> {
+            offered.add(ids);
+            return ids;
+        };
+
+        assertEquals(5, documentSearchIndex.search("shared", 5, recording).size());
+        assertEquals(1, offered.size());
+        assertEquals(1000, offered.get(0).length);
+    }
+
+    @Test
+    void testChangesInTransactionApplyOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Document document = new Document("Draft", "txt", 1);
+            document.setId(4L);
+            documentSearchIndex.documentCreated(document, "draft numbers");
+            documentSearchIndex.documentDeleted(1L);
+
+            assertTrue(documentSearchIndex.search("draft", 10, EVERYTHING).isEmpty());
+            assertEquals(Arrays.asList(1L, 2L), ids(documentSearchIndex.search("budget", 10, EVERYTHING)));
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            assertEquals(Arrays.asList(4L), ids(documentSearchIndex.search("draft", 10, EVERYTHING)));
+            assertEquals(Arrays.asList(2L), ids(documentSearchIndex.search("budget", 10, EVERYTHING)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testIndexFollowsCreateAndDelete() {
+        Document document = new Document("Budget draft", "txt", 1);
+        document.setId(4L);
+
+        documentSearchIndex.documentCreated(document, "draft numbers");
+        assertEquals(Arrays.asList(4L), ids(documentSearchIndex.search("draft", 10, EVERYTHING)));
+
+        documentSearchIndex.documentDeleted(4L);
+        documentSearchIndex.documentDeleted(1L);
+
+        assertTrue(documentSearchIndex.search("draft", 10, EVERYTHING).isEmpty());
+        assertEquals(Collections.singletonList(2L), ids(documentSearchIndex.search("budget", 10, EVERYTHING)));
+    }
+
+    @Test
+    void testQueryWithoutWordsIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> documentSearchIndex.search(" - ! a ", 10, EVERYTHING));
+    }
+
+    @Test
+    void testTokenizeLowercasesAndSplitsOnPunctuation() {
+        assertEquals(Arrays.asList("q3", "budget", "überblick", "v2"), DocumentSearchIndex.tokenize("Q3-Budget: Überblick (v2) a"));
+    }
+
+    private List<Long> ids(List<SearchHitDto> hits) {
+        return hits.stream().map(SearchHitDto::getId).toList();
+    }
+}
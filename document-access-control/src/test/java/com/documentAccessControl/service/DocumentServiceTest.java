@@ -2,32 +2,98 @@ package com.documentAccessControl.service;
 
 import com.documentAccessControl.dto.*;
 import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentPermission;
 import com.documentAccessControl.entity.Permission;
 import com.documentAccessControl.exception.AccessDeniedException;
 import com.documentAccessControl.exception.DocumentNotFoundException;
+import com.documentAccessControl.metrics.DocumentMetrics;
+import com.documentAccessControl.repository.DocumentEffectivePermissionRepository;
+import com.documentAccessControl.repository.DocumentExportRepository;
+import com.documentAccessControl.repository.DocumentPermissionBatchRepository;
+import com.documentAccessControl.repository.DocumentPermissionBatchRepository.Grant;
+import com.documentAccessControl.repository.DocumentPermissionRepository;
 import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.storage.ByteArrayStoredContent;
+import com.documentAccessControl.storage.ContentStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class DocumentServiceTest {
+    private static final CurrentUser ADMIN = new CurrentUser(1, "admin");
+    private static final CurrentUser USER1 = new CurrentUser(2, "user1");
+    private static final CurrentUser USER2 = new CurrentUser(3, "user2");
+
     @Mock
     private DocumentRepository documentRepository;
 
+    @Mock
+    private ContentStore contentStore;
+
+    @Mock
+    private DocumentExportRepository documentExportRepository;
+
+    @Mock
+    private DocumentPermissionRepository documentPermissionRepository;
+
+    @Mock
+    private DocumentPermissionBatchRepository documentPermissionBatchRepository;
+
+    @Mock
+    private DocumentEffectivePermissionRepository documentEffectivePermissionRepository;
+
+    @Mock
+    private DocumentAclIndex documentAclIndex;
+
+    @Spy
+    private DocumentDecisionCache documentDecisionCache = new DocumentDecisionCache(true, 1000, new SimpleMeterRegistry());
+
+    @Mock
+    private AccessCheckBatcher accessCheckBatcher;
+
+    @Spy
+    private AccessCheckExecutor accessCheckExecutor = new AccessCheckExecutor(10, 2, 2, 10, new SimpleMeterRegistry());
+
+    @Spy
+    private UserDictionary userDictionary = new UserDictionary(null, null, 100);
+
+    @Mock
+    private GroupService groupService;
+
+    @Mock
+    private FolderService folderService;
+
+    @Mock
+    private AclChangeLog aclChangeLog;
+
+    @Mock
+    private DocumentSearchIndex documentSearchIndex;
+
+    @Mock
+    private DocumentMetrics documentMetrics;
+
     @InjectMocks
     private DocumentService documentService;
 
@@ -37,7 +103,12 @@ public class DocumentServiceTest {
 
     @BeforeEach
     void setUp() {
-        testDocument = new Document("Test Doc", "Content", "pdf", "admin");
+        userDictionary.remember(1, "admin");
+        userDictionary.remember(2, "user1");
+        userDictionary.remember(3, "user2");
+        userDictionary.remember(4, "user3");
+
+        testDocument = new Document("Test Doc", "pdf", 1);
         testDocument.setId(1L);
         testDocument.setCreatedAt(LocalDateTime.now());
 
@@ -51,23 +122,35 @@ public class DocumentServiceTest {
     void testCreateDocumentSuccess() {
         when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
 
-        DocumentDto result = documentService.createDocument("admin", createRequest);
+        DocumentDto result = documentService.createDocument(ADMIN, createRequest);
 
         assertNotNull(result);
         assertEquals("Test Doc", result.getName());
-        assertEquals("Content", result.getContent());
+        assertEquals("Test Content", result.getContent());
         verify(documentRepository, times(1)).save(any(Document.class));
+        verify(contentStore, times(1)).write(testDocument, "Test Content");
+        verify(documentEffectivePermissionRepository, times(1))
+                .saveAll(argThat(entries -> ((List<?>) entries).size() == Permission.values().length));
     }
 
 
     @Test
     void testCreateDocumentNonAdminUser() {
         assertThrows(AccessDeniedException.class, () ->
-                documentService.createDocument("user1", createRequest)
+                documentService.createDocument(USER1, createRequest)
         );
         verify(documentRepository, never()).save(any());
     }
 
+    @Test
+    void testCreateDocumentInUnknownFolderIsRejected() {
+        createRequest.setFolderId(9L);
+        doThrow(new IllegalArgumentException("Folder not found: 9")).when(folderService).requireFolderExists(9L);
+
+        assertThrows(IllegalArgumentException.class, () -> documentService.createDocument(ADMIN, createRequest));
+        verify(documentRepository, never()).save(any());
+    }
+
     @Test
     void testCreateDocumentWithAccessibleUsers() {
         UserPermissionDto userPerm = new UserPermissionDto("user1", Permission.READ);
@@ -75,7 +158,7 @@ public class DocumentServiceTest {
 
         when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
 
-        DocumentDto result = documentService.createDocument("admin", createRequest);
+        DocumentDto result = documentService.createDocument(ADMIN, createRequest);
 
         assertNotNull(result);
         verify(documentRepository, times(1)).save(any(Document.class));
@@ -86,7 +169,7 @@ public class DocumentServiceTest {
         List<Document> documents = Arrays.asList(testDocument);
         when(documentRepository.findAll()).thenReturn(documents);
 
-        List<DocumentDto> result = documentService.getListOfAccessibleDocuments("admin");
+        List<DocumentDto> result = documentService.getListOfAccessibleDocuments(ADMIN);
 
         assertEquals(1, result.size());
         verify(documentRepository, times(1)).findAll();
@@ -95,68 +178,221 @@ public class DocumentServiceTest {
     @Test
     void testGetListOfAccessibleDocumentsRegularUser() {
         List<Document> documents = Arrays.asList(testDocument);
-        when(documentRepository.findDocumentsWithPermission("user1", Permission.READ))
+        when(documentRepository.findDocumentsWithPermission(2, Permission.READ))
                 .thenReturn(documents);
 
-        List<DocumentDto> result = documentService.getListOfAccessibleDocuments("user1");
+        List<DocumentDto> result = documentService.getListOfAccessibleDocuments(USER1);
 
         assertEquals(1, result.size());
-        verify(documentRepository, times(1)).findDocumentsWithPermission("user1", Permission.READ);
+        verify(documentRepository, times(1)).findDocumentsWithPermission(2, Permission.READ);
     }
 
     @Test
     void testGetDocumentByIdSuccess() {
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
 
-        DocumentDto result = documentService.getDocumentById("admin", 1L);
+        DocumentDto result = documentService.getDocumentById(ADMIN, 1L);
 
         assertNotNull(result);
         assertEquals("Test Doc", result.getName());
-        verify(documentRepository, times(1)).findById(1L);
+        verify(documentRepository, times(1)).findWithPermissionsById(1L);
+    }
+
+    @Test
+    void testGetListOfAccessibleDocumentsDoesNotLoadContent() {
+        when(documentRepository.findAll()).thenReturn(Arrays.asList(testDocument));
+
+        List<DocumentDto> result = documentService.getListOfAccessibleDocuments(ADMIN);
+
+        assertNull(result.get(0).getContent());
+        verifyNoInteractions(contentStore);
+    }
+
+    @Test
+    void testGetDocumentContent() {
+        when(documentRepository.findOwnerById(1L)).thenReturn(Optional.of(1));
+        when(contentStore.open(1L)).thenReturn(new ByteArrayStoredContent("Content".getBytes()));
+
+        assertEquals(7L, documentService.openDocumentContent(ADMIN, 1L).length());
+        assertThrows(AccessDeniedException.class, () -> documentService.openDocumentContent(USER1, 1L));
+        verify(documentRepository, never()).findWithPermissionsById(any());
+    }
+
+    @Test
+    void testGetDocumentContentChecksEffectivePermissionOnly() {
+        when(documentRepository.findOwnerById(1L)).thenReturn(Optional.of(1));
+        when(documentRepository.findAccessibleDocumentIds(2, Permission.READ, List.of(1L))).thenReturn(List.of(1L));
+        when(contentStore.open(1L)).thenReturn(new ByteArrayStoredContent("Content".getBytes()));
+
+        assertEquals(7L, documentService.openDocumentContent(USER1, 1L).length());
+        assertThrows(DocumentNotFoundException.class, () -> documentService.openDocumentContent(USER1, 2L));
     }
 
     @Test
     void testGetDocumentByIdNotFound() {
-        when(documentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.empty());
 
         assertThrows(DocumentNotFoundException.class, () ->
-                documentService.getDocumentById("admin", 1L)
+                documentService.getDocumentById(ADMIN, 1L)
         );
     }
 
     @Test
     void testGetDocumentByIdAccessDenied() {
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
 
         assertThrows(AccessDeniedException.class, () ->
-                documentService.getDocumentById("user1", 1L)
+                documentService.getDocumentById(USER1, 1L)
         );
     }
 
+    @Test
+    void testPermissionCheckOutcomesAreRecorded() {
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
+
+        documentService.getDocumentById(ADMIN, 1L);
+        assertThrows(AccessDeniedException.class, () -> documentService.getDocumentById(USER1, 1L));
+
+        verify(documentMetrics).recordPermissionCheck(Permission.READ, true);
+        verify(documentMetrics).recordPermissionCheck(Permission.READ, false);
+    }
+
+    @Test
+    void testRepeatedDenialIsServedFromDecisionCache() {
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
+
+        assertThrows(AccessDeniedException.class, () -> documentService.getDocumentById(USER1, 1L));
+        assertThrows(AccessDeniedException.class, () -> documentService.getDocumentById(USER1, 1L));
+
+        verify(documentRepository, times(1)).findWithPermissionsById(1L);
+        verify(documentMetrics, times(2)).recordPermissionCheck(Permission.READ, false);
+        assertEquals(1, documentDecisionCache.stats().hitCount());
+    }
+
+    @Test
+    void testRepeatedAllowSkipsTheAuthorizationQueries() {
+        when(documentRepository.findOwnerById(1L)).thenReturn(Optional.of(1));
+        when(documentRepository.findAccessibleDocumentIds(2, Permission.READ, List.of(1L))).thenReturn(List.of(1L));
+        when(contentStore.open(1L)).thenReturn(new ByteArrayStoredContent("Content".getBytes()));
+
+        documentService.openDocumentContent(USER1, 1L);
+        documentService.openDocumentContent(USER1, 1L);
+
+        verify(documentRepository, times(1)).findOwnerById(1L);
+        verify(documentRepository, times(1)).findAccessibleDocumentIds(2, Permission.READ, List.of(1L));
+        verify(documentMetrics, times(2)).recordPermissionCheck(Permission.READ, true);
+    }
+
+    @Test
+    void testGrantPermissionInvalidatesCachedDenial() {
+        GrantPermissionRequest request = new GrantPermissionRequest();
+        request.setUsername("user1");
+        request.setPermission(Permission.READ);
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
+        when(documentRepository.findRevisionById(1L)).thenReturn(Optional.of(1L));
+
+        assertThrows(AccessDeniedException.class, () -> documentService.getDocumentById(USER1, 1L));
+        documentService.grantPermission(ADMIN, 1L, request);
+
+        assertNotNull(documentService.getDocumentById(USER1, 1L));
+        verify(documentDecisionCache).permissionChanged(1L, 2, Permission.READ);
+    }
+
+    @Test
+    void testGrantPermissionBumpsRevisionOnlyWhenSomethingChanged() {
+        GrantPermissionRequest request = new GrantPermissionRequest("user1", Permission.READ);
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
+        // another grant committed in between, so the revision read back is ahead of the loaded one by two
+        when(documentRepository.findRevisionById(1L)).thenReturn(Optional.of(2L));
+
+        assertEquals(2, documentService.grantPermission(ADMIN, 1L, request).getRevision());
+        documentService.grantPermission(ADMIN, 1L, request);
+
+        verify(documentRepository, times(1)).incrementRevisions(List.of(1L));
+    }
+
+    @Test
+    void testGetDocumentRevisionChecksPermissionFirst() {
+        when(documentRepository.findOwnerById(1L)).thenReturn(Optional.of(1));
+
+        assertThrows(AccessDeniedException.class, () -> documentService.getDocumentRevision(USER1, 1L));
+        verify(documentRepository, never()).findRevisionById(any());
+    }
+
+    @Test
+    void testGetDocumentByIdAllowsPermissionHeldThroughGroup() {
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.findAccessibleDocumentIds(2, Permission.READ, List.of(1L))).thenReturn(List.of(1L));
+
+        assertNotNull(documentService.getDocumentById(USER1, 1L));
+        verify(documentMetrics).recordPermissionCheck(Permission.READ, true);
+    }
+
+    @Test
+    void testGrantPermissionToGroupDelegatesToGroupService() {
+        GrantPermissionRequest request = new GrantPermissionRequest();
+        request.setGroup("editors");
+        request.setPermission(Permission.WRITE);
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
+
+        documentService.grantPermission(ADMIN, 1L, request);
+
+        verify(groupService, times(1)).grantToGroup(testDocument, "editors", Permission.WRITE);
+        verify(documentRepository, never()).save(any(Document.class));
+        verify(documentRepository, never()).incrementRevisions(any());
+    }
+
+    @Test
+    void testGrantPermissionToGroupBumpsRevisionWhenTheGroupGainedAccess() {
+        GrantPermissionRequest request = new GrantPermissionRequest();
+        request.setGroup("editors");
+        request.setPermission(Permission.WRITE);
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
+        when(groupService.grantToGroup(testDocument, "editors", Permission.WRITE)).thenReturn(true);
+        when(documentRepository.findRevisionById(1L)).thenReturn(Optional.of(1L));
+
+        assertEquals(1, documentService.grantPermission(ADMIN, 1L, request).getRevision());
+        verify(documentRepository, times(1)).incrementRevisions(List.of(1L));
+    }
+
+    @Test
+    void testGrantPermissionRequiresExactlyOneGrantee() {
+        GrantPermissionRequest request = new GrantPermissionRequest("user1", Permission.READ);
+        request.setGroup("editors");
+
+        assertThrows(IllegalArgumentException.class, () -> documentService.grantPermission(ADMIN, 1L, request));
+        assertThrows(IllegalArgumentException.class, () ->
+                documentService.grantPermission(ADMIN, 1L, new GrantPermissionRequest(" ", Permission.READ)));
+        verify(documentRepository, never()).findWithPermissionsById(any());
+    }
+
     @Test
     void testDeleteDocumentSuccess() {
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
 
-        documentService.deleteDocument("admin", 1L);
+        documentService.deleteDocument(ADMIN, 1L);
 
         verify(documentRepository, times(1)).delete(testDocument);
+        verify(contentStore, times(1)).delete(1L);
+        verify(documentDecisionCache, times(1)).documentDeleted(1L);
     }
 
     @Test
     void testDeleteDocumentNotFound() {
-        when(documentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.empty());
 
         assertThrows(DocumentNotFoundException.class, () ->
-                documentService.deleteDocument("admin", 1L)
+                documentService.deleteDocument(ADMIN, 1L)
         );
     }
 
     @Test
     void testDeleteDocumentAccessDenied() {
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
 
         assertThrows(AccessDeniedException.class, () ->
-                documentService.deleteDocument("user1", 1L)
+                documentService.deleteDocument(USER1, 1L)
         );
     }
 
@@ -166,10 +402,11 @@ public class DocumentServiceTest {
         request.setUsername("user1");
         request.setPermission(Permission.READ);
 
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
         when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
+        when(documentRepository.findRevisionById(1L)).thenReturn(Optional.of(1L));
 
-        DocumentDto result = documentService.grantPermission("admin", 1L, request);
+        DocumentDto result = documentService.grantPermission(ADMIN, 1L, request);
 
         assertNotNull(result);
         verify(documentRepository, times(1)).save(any(Document.class));
@@ -181,10 +418,10 @@ public class DocumentServiceTest {
         request.setUsername("user1");
         request.setPermission(Permission.READ);
 
-        when(documentRepository.findById(1L)).thenReturn(Optional.empty());
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.empty());
 
         assertThrows(DocumentNotFoundException.class, () ->
-                documentService.grantPermission("admin", 1L, request)
+                documentService.grantPermission(ADMIN, 1L, request)
         );
     }
 
@@ -194,40 +431,273 @@ public class DocumentServiceTest {
         request.setUsername("user1");
         request.setPermission(Permission.READ);
 
-        when(documentRepository.findById(1L)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
 
         assertThrows(AccessDeniedException.class, () ->
-                documentService.grantPermission("user2", 1L, request)
+                documentService.grantPermission(USER2, 1L, request)
         );
     }
 
     @Test
     void testCheckAccessAdminUser() {
         AccessCheckRequest request = new AccessCheckRequest();
-        request.setDocumentIds(Arrays.asList(1L, 2L));
+        request.setDocumentIds(new long[]{1L, 2L});
         request.setPermission(Permission.READ);
 
         when(documentRepository.findExistingDocumentIds(Arrays.asList(1L, 2L)))
                 .thenReturn(Arrays.asList(1L, 2L));
 
-        AccessCheckResponse response = documentService.checkAccess("admin", request);
+        AccessCheckResponse response = documentService.checkAccess(ADMIN, request);
 
-        assertEquals(2, response.getAccessibleIds().size());
+        assertArrayEquals(new long[]{1L, 2L}, response.getAccessibleIds());
         verify(documentRepository, times(1)).findExistingDocumentIds(Arrays.asList(1L, 2L));
     }
 
     @Test
     void testCheckAccessRegularUser() {
         AccessCheckRequest request = new AccessCheckRequest();
-        request.setDocumentIds(Arrays.asList(1L, 2L));
+        request.setDocumentIds(new long[]{1L, 2L});
         request.setPermission(Permission.READ);
 
-        when(documentRepository.findAccessibleDocumentIds("user1", Permission.READ, Arrays.asList(1L, 2L)))
+        when(accessCheckBatcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L)))
                 .thenReturn(Arrays.asList(1L));
 
-        AccessCheckResponse response = documentService.checkAccess("user1", request);
+        AccessCheckResponse response = documentService.checkAccess(USER1, request);
+
+        assertArrayEquals(new long[]{1L}, response.getAccessibleIds());
+        verify(accessCheckBatcher, times(1)).findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L));
+    }
+
+    @Test
+    void testCheckAccessSplitsLargeRequestsIntoChunksAndSortsResult() {
+        AccessCheckRequest request = new AccessCheckRequest(Permission.READ, new long[]{5L, 3L, 1L, 4L, 2L, 3L});
+        when(accessCheckBatcher.findAccessibleDocumentIds(eq(2), eq(Permission.READ), any()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(2).stream().filter(id -> id != 4L).toList());
+
+        AccessCheckResponse response = documentService.checkAccess(USER1, request);
+
+        assertArrayEquals(new long[]{1L, 2L, 3L, 5L}, response.getAccessibleIds());
+        verify(accessCheckBatcher).findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L));
+        verify(accessCheckBatcher).findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(3L, 4L));
+        verify(accessCheckBatcher).findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(5L));
+    }
+
+    @Test
+    void testCheckAccessRejectsTooManyIds() {
+        long[] ids = new long[11];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i + 1;
+        }
+
+        assertThrows(IllegalArgumentException.class, () ->
+                documentService.checkAccess(USER1, new AccessCheckRequest(Permission.READ, ids)));
+        verifyNoInteractions(accessCheckBatcher);
+    }
+
+    @Test
+    void testCheckAccessUsesAclIndexWhenReady() {
+        AccessCheckRequest request = new AccessCheckRequest();
+        request.setDocumentIds(new long[]{2L, 1L});
+        request.setPermission(Permission.READ);
+
+        when(documentAclIndex.isReady()).thenReturn(true);
+        when(documentAclIndex.findAccessibleDocumentIds(2, Permission.READ, new long[]{1L, 2L}))
+                .thenReturn(new long[]{2L});
+
+        AccessCheckResponse response = documentService.checkAccess(USER1, request);
+
+        assertArrayEquals(new long[]{2L}, response.getAccessibleIds());
+        verify(accessCheckBatcher, never()).findAccessibleDocumentIds(anyInt(), any(), any());
+    }
+
+    @Test
+    void testCreateAndDeleteDocumentUpdateAclIndexAndChangeLog() {
+        when(documentRepository.save(any(Document.class))).thenReturn(testDocument);
+        when(documentRepository.findWithPermissionsById(1L)).thenReturn(Optional.of(testDocument));
+
+        documentService.createDocument(ADMIN, createRequest);
+        documentService.deleteDocument(ADMIN, 1L);
+
+        verify(documentAclIndex, times(1)).documentCreated(testDocument);
+        verify(documentAclIndex, times(1)).documentDeleted(testDocument);
+        verify(aclChangeLog).documentCreated(testDocument);
+        verify(aclChangeLog).documentDeleted(1L);
+        verify(documentSearchIndex).documentCreated(testDocument, createRequest.getContent());
+        verify(documentSearchIndex).documentDeleted(1L);
+    }
+
+    @Test
+    void testSearchDocumentsFiltersCandidatesThroughAccessLookup() {
+        when(documentSearchIndex.isReady()).thenReturn(true);
+        when(accessCheckBatcher.findAccessibleDocumentIds(2, Permission.READ, Arrays.asList(1L, 2L)))
+                .thenReturn(Arrays.asList(2L));
+        when(documentSearchIndex.search(eq("budget"), eq(10), any())).thenAnswer(invocation -> {
+            long[] allowed = invocation.<UnaryOperator<long[]>>getArgument(2).apply(new long[]{1L, 2L});
+            return Arrays.stream(allowed).mapToObj(id -> new SearchHitDto(id, "Doc " + id, "txt", 1.0)).toList();
+        });
+
+        List<SearchHitDto> hits = documentService.searchDocuments(USER1, "budget", 10);
+
+        assertEquals(1, hits.size());
+        assertEquals(2L, hits.get(0).getId());
+    }
+
+    @Test
+    void testSearchDocumentsRequiresReadyIndexAndSaneLimit() {
+        assertThrows(IllegalArgumentException.class, () -> documentService.searchDocuments(USER1, "budget", 10));
+
+        when(documentSearchIndex.isReady()).thenReturn(true);
+        assertThrows(IllegalArgumentException.class, () -> documentService.searchDocuments(USER1, "budget", 0));
+        assertThrows(IllegalArgumentException.class, () -> documentService.searchDocuments(USER1, "budget", 101));
+        verify(documentSearchIndex, never()).search(any(), anyInt(), any());
+    }
+
+    @Test
+    void testCheckAccessResolvesAclIndexMissesThroughFolders() {
+        AccessCheckRequest request = new AccessCheckRequest();
+        request.setDocumentIds(new long[]{1L, 2L, 3L});
+        request.setPermission(Permission.READ);
+
+        when(documentAclIndex.isReady()).thenReturn(true);
+        when(documentAclIndex.findAccessibleDocumentIds(eq(2), eq(Permission.READ), any())).thenAnswer(invocation ->
+                Arrays.stream(invocation.<long[]>getArgument(2)).filter(id -> id == 2L).toArray());
+        when(documentRepository.findDocumentIdsGrantedThroughFolders(eq(2), eq(Permission.READ), any())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(2).stream().filter(id -> id == 3L).toList());
+
+        AccessCheckResponse response = documentService.checkAccess(USER1, request);
+
+        assertArrayEquals(new long[]{2L, 3L}, response.getAccessibleIds());
+    }
+
+    @Test
+    void testGetPageOfAccessibleDocumentsReturnsCursorWhenMoreRemain() {
+        when(documentRepository.findDocumentSummariesAfter(eq(0L), any()))
+                .thenReturn(Arrays.asList(new DocumentDto(1L, "A", "pdf"), new DocumentDto(2L, "B", "pdf"), new DocumentDto(3L, "C", "pdf")));
+
+        DocumentPageDto page = documentService.getPageOfAccessibleDocuments(ADMIN, null, 2, false, false);
+
+        assertEquals(2, page.getDocuments().size());
+        assertEquals(2L, page.getNextCursor());
+        assertNull(page.getDocuments().get(0).getContent());
+        verify(contentStore, never()).readAll(any());
+    }
+
+    @Test
+    void testGetPageOfAccessibleDocumentsRegularUserWithPermissions() {
+        when(documentRepository.findDocumentSummariesWithPermissionAfter(eq(2), eq(Permission.READ), eq(5L), any()))
+                .thenReturn(Arrays.asList(new DocumentDto(6L, "A", "pdf")));
+        when(documentRepository.findPermissionEntriesByDocumentIds(Arrays.asList(6L)))
+                .thenReturn(Arrays.<Object[]>asList(new Object[]{6L, 2, Permission.READ.getMask() | Permission.WRITE.getMask()}));
+
+        DocumentPageDto page = documentService.getPageOfAccessibleDocuments(USER1, 5L, 10, false, true);
+
+        assertNull(page.getNextCursor());
+        assertEquals(2, page.getDocuments().get(0).getAccessibleUsers().size());
+    }
+
+    @Test
+    void testGetPageOfAccessibleDocumentsMergesFolderGrants() {
+        when(documentRepository.findDocumentSummariesWithPermissionAfter(eq(2), eq(Permission.READ), eq(0L), any()))
+                .thenReturn(Arrays.asList(new DocumentDto(1L, "A", "pdf"), new DocumentDto(4L, "D", "pdf")));
+        when(documentRepository.findFolderDocumentSummariesWithPermissionAfter(eq(2), eq(Permission.READ), eq(0L), any()))
+                .thenReturn(Arrays.asList(new DocumentDto(2L, "B", "pdf"), new DocumentDto(4L, "D", "pdf"), new DocumentDto(5L, "E", "pdf")));
+
+        DocumentPageDto page = documentService.getPageOfAccessibleDocuments(USER1, null, 3, false, false);
+
+        assertEquals(Arrays.asList(1L, 2L, 4L), page.getDocuments().stream().map(DocumentDto::getId).toList());
+        assertEquals(4L, page.getNextCursor());
+    }
 
-        assertEquals(1, response.getAccessibleIds().size());
-        verify(documentRepository, times(1)).findAccessibleDocumentIds("user1", Permission.READ, Arrays.asList(1L, 2L));
+    @Test
+    void testGetPageOfAccessibleDocumentsInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () ->
+                documentService.getPageOfAccessibleDocuments(ADMIN, null, 0, false, false)
+        );
+    }
+
+    @Test
+    void testExportAccessibleDocumentsStreamsFromCursor() {
+        doAnswer(invocation -> {
+            Consumer<DocumentDto> consumer = invocation.getArgument(2);
+            consumer.accept(new DocumentDto(1L, "A", "pdf"));
+            return null;
+        }).when(documentExportRepository).streamDocumentsWithPermission(eq(2), eq(Permission.READ), any());
+
+        List<DocumentDto> exported = new ArrayList<>();
+        documentService.exportAccessibleDocuments(USER1, exported::add);
+
+        assertEquals(1, exported.size());
+        verify(documentExportRepository, never()).streamAllDocuments(any());
+        verify(documentRepository, never()).findAll();
+    }
+
+    @Test
+    void testBulkGrantPermissionsReportsStatusPerItem() {
+        BulkGrantRequest request = new BulkGrantRequest(Arrays.asList(
+                new BulkGrantItem(1L, "user2", Permission.READ),
+                new BulkGrantItem(1L, "user3", Permission.READ),
+                new BulkGrantItem(1L, "user2", Permission.READ),
+                new BulkGrantItem(1L, "user3", Permission.WRITE),
+                new BulkGrantItem(2L, "user2", Permission.READ),
+                new BulkGrantItem(9L, "user2", Permission.READ)
+        ));
+        DocumentPermission existing = new DocumentPermission(4, Permission.READ);
+        testDocument.addPermission(existing);
+        when(documentRepository.findDocumentOwners(any()))
+                .thenReturn(Arrays.asList(new Object[]{1L, 1}, new Object[]{2L, 1}));
+        when(documentRepository.findAccessibleDocumentIds(eq(2), eq(Permission.WRITE), any())).thenReturn(Arrays.asList(1L));
+        when(documentPermissionRepository.findByDocumentIdsAndUserIds(any(), any())).thenReturn(Arrays.asList(existing));
+
+        BulkGrantResponse response = documentService.bulkGrantPermissions(USER1, request);
+
+        assertEquals(Arrays.asList(BulkGrantResult.Status.GRANTED, BulkGrantResult.Status.ALREADY_GRANTED,
+                        BulkGrantResult.Status.ALREADY_GRANTED, BulkGrantResult.Status.GRANTED,
+                        BulkGrantResult.Status.ACCESS_DENIED, BulkGrantResult.Status.DOCUMENT_NOT_FOUND),
+                response.getResults().stream().map(BulkGrantResult::getStatus).toList());
+        List<Grant> expected = Arrays.asList(new Grant(1L, 3, Permission.READ), new Grant(1L, 4, Permission.WRITE));
+        verify(documentPermissionBatchRepository, times(1)).grant(expected);
+        verify(documentPermissionBatchRepository, times(1)).insertEffectiveIfAbsent(expected);
+        verify(documentPermissionRepository, never()).saveAll(any());
+        verify(documentAclIndex, times(1)).permissionGranted(1L, 3, Permission.READ);
+        verify(documentAclIndex, times(1)).permissionGranted(1L, 4, Permission.WRITE);
+    }
+
+    @Test
+    void testBulkGrantPermissionsSkipsInsertWhenNothingIsGrantable() {
+        BulkGrantRequest request = new BulkGrantRequest(Arrays.asList(new BulkGrantItem(9L, "user2", Permission.READ)));
+        when(documentRepository.findDocumentOwners(any())).thenReturn(new ArrayList<>());
+
+        BulkGrantResponse response = documentService.bulkGrantPermissions(ADMIN, request);
+
+        assertEquals(BulkGrantResult.Status.DOCUMENT_NOT_FOUND, response.getResults().get(0).getStatus());
+        verify(documentPermissionRepository, never()).findByDocumentIdsAndUserIds(any(), any());
+        verify(documentPermissionBatchRepository, never()).grant(any());
+    }
+
+    @Test
+    void testCreateDocumentsSavesAllInOneCall() {
+        Document second = new Document("Second Doc", "txt", 1);
+        second.setId(2L);
+        when(documentRepository.saveAll(anyList())).thenReturn(Arrays.asList(testDocument, second));
+        CreateDocumentRequest withoutContent = new CreateDocumentRequest();
+        withoutContent.setName("Second Doc");
+        withoutContent.setFileType("txt");
+
+        List<DocumentDto> created = documentService.createDocuments(ADMIN,
+                new BulkCreateDocumentRequest(Arrays.asList(createRequest, withoutContent)));
+
+        assertEquals(Arrays.asList(1L, 2L), created.stream().map(DocumentDto::getId).toList());
+        verify(documentRepository, times(1)).saveAll(anyList());
+        verify(documentRepository, never()).save(any(Document.class));
+        verify(contentStore, times(1)).write(testDocument, createRequest.getContent());
+        verify(documentAclIndex, times(2)).documentCreated(any(Document.class));
+    }
+
+    @Test
+    void testCreateDocumentsNonAdminUser() {
+        assertThrows(AccessDeniedException.class, () ->
+                documentService.createDocuments(USER1, new BulkCreateDocumentRequest(Arrays.asList(createRequest)))
+        );
+        verify(documentRepository, never()).saveAll(anyList());
     }
 }
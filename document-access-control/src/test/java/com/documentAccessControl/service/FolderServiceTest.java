@@ -0,0 +1,192 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.CreateFolderRequest;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.dto.GrantPermissionRequest;
+import com.documentAccessControl.entity.Folder;
+import com.documentAccessControl.entity.FolderClosure;
+import com.documentAccessControl.entity.FolderClosureId;
+import com.documentAccessControl.entity.FolderPermissionId;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.exception.AccessDeniedException;
+import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.repository.FolderClosureRepository;
+import com.documentAccessControl.repository.FolderPermissionRepository;
+import com.documentAccessControl.repository.FolderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FolderServiceTest {
+    private static final CurrentUser ADMIN = new CurrentUser(1, "admin");
+    private static final CurrentUser USER1 = new CurrentUser(2, "user1");
+
+    @Mock
+    private FolderRepository folderRepository;
+
+    @Mock
+    private FolderClosureRepository folderClosureRepository;
+
+    @Mock
+    private FolderPermissionRepository folderPermissionRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private AclChangeLog aclChangeLog;
+
+    @Spy
+    private DocumentDecisionCache documentDecisionCache = new DocumentDecisionCache(true, 1000, new SimpleMeterRegistry());
+
+    @Spy
+    private UserDictionary userDictionary = new UserDictionary(null, null, 100);
+
+    @InjectMocks
+    private FolderService folderService;
+
+    @BeforeEach
+    void setUp() {
+        userDictionary.remember(1, "admin");
+        userDictionary.remember(2, "user1");
+        userDictionary.remember(3, "user2");
+    }
+
+    @Test
+    void testCreateFolderLinksItToEveryAncestor() {
+        when(folderRepository.existsById(2L)).thenReturn(true);
+        when(folderRepository.save(any(Folder.class))).thenAnswer(invocation -> {
+            Folder folder = invocation.getArgument(0);
+            folder.setId(3L);
+            return folder;
+        });
+        when(folderClosureRepository.findAncestors(2L)).thenReturn(Arrays.asList(
+                new FolderClosure(2L, 2L, 0), new FolderClosure(1L, 2L, 1)));
+
+        folderService.createFolder(ADMIN, new CreateFolderRequest("c", 2L));
+
+        verify(folderClosureRepository).saveAll(argThat(links -> depths(links).equals(Map.of(
+                new FolderClosureId(3L, 3L), 0, new FolderClosureId(2L, 3L), 1, new FolderClosureId(1L, 3L), 2))));
+    }
+
+    @Test
+    void testMoveFolderRelinksOnlyTheSubtree() {
+        when(folderRepository.findById(2L)).thenReturn(Optional.of(folder(2L, 1L)));
+        when(folderRepository.findById(5L)).thenReturn(Optional.of(folder(5L, null)));
+        when(folderClosureRepository.findSubtree(2L)).thenReturn(Arrays.asList(
+                new FolderClosure(2L, 2L, 0), new FolderClosure(2L, 3L, 1)));
+        when(folderClosureRepository.findAncestors(5L)).thenReturn(List.of(new FolderClosure(5L, 5L, 0)));
+
+        folderService.moveFolder(ADMIN, 2L, 5L);
+
+        verify(folderClosureRepository).detachSubtree(Set.of(2L, 3L));
+        verify(folderClosureRepository).saveAll(argThat(links -> depths(links).equals(Map.of(
+                new FolderClosureId(5L, 2L), 1, new FolderClosureId(5L, 3L), 2))));
+        verify(folderRepository).save(argThat(folder -> folder.getParentId() == 5L));
+        verify(documentDecisionCache).folderMoved();
+    }
+
+    @Test
+    void testMoveFolderLogsAccessGainedAndLostBelowIt() {
+        when(aclChangeLog.isEnabled()).thenReturn(true);
+        when(folderRepository.findById(2L)).thenReturn(Optional.of(folder(2L, 1L)));
+        when(folderRepository.findById(5L)).thenReturn(Optional.of(folder(5L, null)));
+        when(folderClosureRepository.findSubtree(2L)).thenReturn(Arrays.asList(
+                new FolderClosure(2L, 2L, 0), new FolderClosure(2L, 3L, 1)));
+        when(folderClosureRepository.findAncestors(2L)).thenReturn(Arrays.asList(
+                new FolderClosure(2L, 2L, 0), new FolderClosure(1L, 2L, 1)));
+        when(folderClosureRepository.findAncestors(5L)).thenReturn(List.of(new FolderClosure(5L, 5L, 0)));
+        when(documentRepository.findIdsByFolderIds(Set.of(2L, 3L))).thenReturn(List.of(10L, 11L));
+        when(folderPermissionRepository.findIdsByFolderIds(Set.of(1L, 5L))).thenReturn(Arrays.asList(
+                new FolderPermissionId(3, Permission.READ, 1L), new FolderPermissionId(4, Permission.WRITE, 5L)));
+        // document 11 keeps READ for user 3 through a direct grant
+        when(documentRepository.findAccessibleDocumentIds(3, Permission.READ, List.of(10L, 11L)))
+                .thenReturn(List.of(10L, 11L), List.of(11L));
+        when(documentRepository.findAccessibleDocumentIds(4, Permission.WRITE, List.of(10L, 11L)))
+                .thenReturn(List.of(), List.of(10L, 11L));
+
+        folderService.moveFolder(ADMIN, 2L, 5L);
+
+        verify(aclChangeLog).permissionRevoked(10L, 3, Permission.READ);
+        verify(aclChangeLog).permissionGranted(10L, 4, Permission.WRITE);
+        verify(aclChangeLog).permissionGranted(11L, 4, Permission.WRITE);
+        verify(aclChangeLog, never()).permissionRevoked(11L, 3, Permission.READ);
+    }
+
+    @Test
+    void testMoveFolderIntoItsOwnSubtreeIsRejected() {
+        when(folderRepository.findById(2L)).thenReturn(Optional.of(folder(2L, 1L)));
+        when(folderRepository.findById(3L)).thenReturn(Optional.of(folder(3L, 2L)));
+        when(folderClosureRepository.findSubtree(2L)).thenReturn(Arrays.asList(
+                new FolderClosure(2L, 2L, 0), new FolderClosure(2L, 3L, 1)));
+
+        assertThrows(IllegalArgumentException.class, () -> folderService.moveFolder(ADMIN, 2L, 3L));
+        verify(folderClosureRepository, never()).detachSubtree(any());
+    }
+
+    @Test
+    void testGrantRequiresInheritedWritePermission() {
+        when(folderRepository.findById(2L)).thenReturn(Optional.of(folder(2L, 1L)));
+        GrantPermissionRequest request = new GrantPermissionRequest("user2", Permission.READ);
+
+        assertThrows(AccessDeniedException.class, () -> folderService.grantPermission(USER1, 2L, request));
+
+        when(folderPermissionRepository.existsInherited(2, Permission.WRITE, 2L)).thenReturn(true);
+        folderService.grantPermission(USER1, 2L, request);
+
+        verify(folderPermissionRepository).save(argThat(p -> p.getId().equals(new FolderPermissionId(3, Permission.READ, 2L))));
+        verify(documentDecisionCache).folderPermissionChanged(3, Permission.READ);
+    }
+
+    @Test
+    void testGrantLogsDocumentsThatGainedAccess() {
+        when(aclChangeLog.isEnabled()).thenReturn(true);
+        when(folderRepository.findById(2L)).thenReturn(Optional.of(folder(2L, 1L)));
+        when(folderClosureRepository.findSubtree(2L)).thenReturn(Arrays.asList(
+                new FolderClosure(2L, 2L, 0), new FolderClosure(2L, 3L, 1)));
+        when(documentRepository.findIdsByFolderIds(Set.of(2L, 3L))).thenReturn(List.of(10L, 11L));
+        when(documentRepository.findAccessibleDocumentIds(3, Permission.READ, List.of(10L, 11L))).thenReturn(List.of(11L));
+
+        folderService.grantPermission(ADMIN, 2L, new GrantPermissionRequest("user2", Permission.READ));
+
+        verify(aclChangeLog).permissionGranted(10L, 3, Permission.READ);
+        verify(aclChangeLog, never()).permissionGranted(11L, 3, Permission.READ);
+    }
+
+    @Test
+    void testOnlyAdminManagesFolders() {
+        assertThrows(AccessDeniedException.class, () -> folderService.createFolder(USER1, new CreateFolderRequest("a", null)));
+        assertThrows(AccessDeniedException.class, () -> folderService.moveFolder(USER1, 2L, null));
+        verifyNoInteractions(folderRepository, folderClosureRepository);
+    }
+
+    private Folder folder(Long id, Long parentId) {
+        Folder folder = new Folder("Folder " + id, parentId);
+        folder.setId(id);
+        return folder;
+    }
+
+    private Map<FolderClosureId, Integer> depths(Iterable<FolderClosure> links) {
+        List<FolderClosure> list = new ArrayList<>();
+        links.forEach(list::add);
+        return list.stream().collect(Collectors.toMap(FolderClosure::getId, FolderClosure::getDepth));
+    }
+}
@@ -0,0 +1,221 @@
+package com.documentAccessControl.service;
+
+import com.documentAccessControl.dto.CreateGroupRequest;
+import com.documentAccessControl.dto.CurrentUser;
+import com.documentAccessControl.entity.Document;
+import com.documentAccessControl.entity.DocumentEffectivePermission;
+import com.documentAccessControl.entity.DocumentEffectivePermissionId;
+import com.documentAccessControl.entity.DocumentGroupPermission;
+import com.documentAccessControl.entity.DocumentPermission;
+import com.documentAccessControl.entity.GroupMemberId;
+import com.documentAccessControl.entity.Permission;
+import com.documentAccessControl.entity.UserGroup;
+import com.documentAccessControl.exception.AccessDeniedException;
+import com.documentAccessControl.repository.DocumentEffectivePermissionRepository;
+import com.documentAccessControl.repository.DocumentGroupPermissionRepository;
+import com.documentAccessControl.repository.DocumentPermissionRepository;
+import com.documentAccessControl.repository.DocumentRepository;
+import com.documentAccessControl.repository.GroupMemberRepository;
+import com.documentAccessControl.repository.UserGroupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GroupServiceTest {
+    private static final CurrentUser ADMIN = new CurrentUser(1, "admin");
+
+    @Mock
+    private UserGroupRepository userGroupRepository;
+
+    @Mock
+    private GroupMemberRepository groupMemberRepository;
+
+    @Mock
+    private DocumentGroupPermissionRepository documentGroupPermissionRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private DocumentPermissionRepository documentPermissionRepository;
+
+    @Mock
+    private DocumentEffectivePermissionRepository documentEffectivePermissionRepository;
+
+    @Mock
+    private DocumentAclIndex documentAclIndex;
+
+    @Spy
+    private DocumentDecisionCache documentDecisionCache = new DocumentDecisionCache(true, 1000, new SimpleMeterRegistry());
+
+    @Mock
+    private AclChangeLog aclChangeLog;
+
+    @Spy
+    private UserDictionary userDictionary = new UserDictionary(null, null, 100);
+
+    @InjectMocks
+    private GroupService groupService;
+
+    private UserGroup editors;
+
+    @BeforeEach
+    void setUp() {
+        userDictionary.remember(1, "admin");
+        userDictionary.remember(2, "user1");
+        userDictionary.remember(3, "user2");
+
+        editors = new UserGroup("editors");
+        editors.setId(7);
+    }
+
+    @Test
+    void testOnlyAdminManagesGroups() {
+        CurrentUser user1 = new CurrentUser(2, "user1");
+
+        assertThrows(AccessDeniedException.class, () -> groupService.createGroup(user1, new CreateGroupRequest("editors")));
+        assertThrows(AccessDeniedException.class, () -> groupService.addMember(user1, "editors", "user2"));
+        verifyNoInteractions(userGroupRepository, groupMemberRepository);
+    }
+
+    @Test
+    void testCreateGroupRejectsDuplicateName() {
+        when(userGroupRepository.findByName("editors")).thenReturn(Optional.of(editors));
+
+        assertThrows(IllegalArgumentException.class, () -> groupService.createGroup(ADMIN, new CreateGroupRequest("editors")));
+        verify(userGroupRepository, never()).save(any());
+    }
+
+    @Test
+    void testAddMemberInsertsOnlyMissingEffectiveEntries() {
+        when(userGroupRepository.findByName("editors")).thenReturn(Optional.of(editors));
+        when(documentGroupPermissionRepository.findDocumentIdsByGroupId(7)).thenReturn(Arrays.asList(10L, 11L, 12L));
+        when(documentRepository.findDocumentOwners(any())).thenReturn(Arrays.asList(
+                new Object[]{10L, 1}, new Object[]{11L, 1}, new Object[]{12L, 2}));
+        when(documentGroupPermissionRepository.findMemberPermissionEntries(eq(2), any())).thenReturn(Arrays.asList(
+                new Object[]{10L, Permission.READ.getMask() | Permission.WRITE.getMask()},
+                new Object[]{11L, Permission.READ.getMask()},
+                new Object[]{12L, Permission.READ.getMask()}));
+        when(documentEffectivePermissionRepository.findIdsByUserIdAndDocumentIds(eq(2), any())).thenReturn(Arrays.asList(
+                new DocumentEffectivePermissionId(2, Permission.READ, 10L)));
+        when(documentRepository.getReferenceById(anyLong())).thenAnswer(invocation -> document(invocation.getArgument(0), 1));
+
+        groupService.addMember(ADMIN, "editors", "user1");
+
+        verify(groupMemberRepository).save(argThat(member -> member.getId().equals(new GroupMemberId(7, 2))));
+        verify(documentEffectivePermissionRepository).saveAll(argThat(entries -> ids(entries).equals(List.of(
+                new DocumentEffectivePermissionId(2, Permission.WRITE, 10L),
+                new DocumentEffectivePermissionId(2, Permission.READ, 11L)))));
+        verify(documentEffectivePermissionRepository, never()).deleteByUserIdAndPermission(anyInt(), any(), any());
+        verify(documentAclIndex).permissionGranted(10L, 2, Permission.WRITE);
+        verify(documentAclIndex).permissionGranted(11L, 2, Permission.READ);
+        verify(documentRepository).incrementRevisions(Set.of(10L, 11L));
+    }
+
+    @Test
+    void testRemoveMemberKeepsPermissionsStillGrantedElsewhere() {
+        when(userGroupRepository.findByName("editors")).thenReturn(Optional.of(editors));
+        when(groupMemberRepository.existsById(new GroupMemberId(7, 2))).thenReturn(true);
+        when(documentGroupPermissionRepository.findDocumentIdsByGroupId(7)).thenReturn(Arrays.asList(10L, 11L));
+        when(documentRepository.findDocumentOwners(any())).thenReturn(Arrays.asList(new Object[]{10L, 1}, new Object[]{11L, 1}));
+        DocumentPermission direct = new DocumentPermission(2, Permission.READ);
+        direct.setDocument(document(10L, 1));
+        when(documentPermissionRepository.findByDocumentIdsAndUserIds(any(), eq(List.of(2)))).thenReturn(List.of(direct));
+        when(documentGroupPermissionRepository.findMemberPermissionEntries(eq(2), any())).thenReturn(Collections.emptyList());
+        when(documentEffectivePermissionRepository.findIdsByUserIdAndDocumentIds(eq(2), any())).thenReturn(Arrays.asList(
+                new DocumentEffectivePermissionId(2, Permission.READ, 10L),
+                new DocumentEffectivePermissionId(2, Permission.READ, 11L),
+                new DocumentEffectivePermissionId(2, Permission.WRITE, 11L)));
+
+        groupService.removeMember(ADMIN, "editors", "user1");
+
+        verify(groupMemberRepository).deleteById(new GroupMemberId(7, 2));
+        verify(documentEffectivePermissionRepository).deleteByUserIdAndPermission(2, Permission.READ, List.of(11L));
+        verify(documentEffectivePermissionRepository).deleteByUserIdAndPermission(2, Permission.WRITE, List.of(11L));
+        verify(documentAclIndex, never()).permissionRevoked(eq(10L), anyInt(), any());
+        verify(documentAclIndex).permissionRevoked(11L, 2, Permission.READ);
+        verify(aclChangeLog).permissionRevoked(11L, 2, Permission.WRITE);
+        verify(documentDecisionCache).permissionChanged(11L, 2, Permission.WRITE);
+        verify(documentRepository).incrementRevisions(Set.of(11L));
+    }
+
+    @Test
+    void testRemoveMemberIsIdempotent() {
+        when(userGroupRepository.findByName("editors")).thenReturn(Optional.of(editors));
+
+        groupService.removeMember(ADMIN, "editors", "user1");
+
+        verify(groupMemberRepository, never()).deleteById(any());
+        verifyNoInteractions(documentEffectivePermissionRepository);
+    }
+
+    @Test
+    void testGrantToGroupExpandsToMembersWithoutTheEntry() {
+        Document document = document(10L, 1);
+        when(userGroupRepository.findByName("editors")).thenReturn(Optional.of(editors));
+        when(documentGroupPermissionRepository.findByDocumentIdAndGroupId(10L, 7)).thenReturn(Optional.empty());
+        when(groupMemberRepository.findUserIdsByGroupId(7)).thenReturn(Arrays.asList(1, 2, 3));
+        when(documentEffectivePermissionRepository.findUserIdsWithPermission(eq(10L), eq(Permission.READ), any()))
+                .thenReturn(List.of(3));
+
+        assertTrue(groupService.grantToGroup(document, "editors", Permission.READ));
+
+        verify(documentGroupPermissionRepository).save(argThat(p -> p.getGroupId() == 7 && p.hasPermission(Permission.READ)));
+        verify(documentEffectivePermissionRepository).saveAll(argThat(entries ->
+                ids(entries).equals(List.of(new DocumentEffectivePermissionId(2, Permission.READ, 10L)))));
+        verify(documentAclIndex, times(1)).permissionGranted(10L, 2, Permission.READ);
+    }
+
+    @Test
+    void testGrantToGroupAlreadyGrantedChangesNothing() {
+        Document document = document(10L, 1);
+        when(userGroupRepository.findByName("editors")).thenReturn(Optional.of(editors));
+        when(documentGroupPermissionRepository.findByDocumentIdAndGroupId(10L, 7))
+                .thenReturn(Optional.of(new DocumentGroupPermission(document, 7, Permission.READ)));
+
+        assertFalse(groupService.grantToGroup(document, "editors", Permission.READ));
+        verify(documentGroupPermissionRepository, never()).save(any());
+        verifyNoInteractions(groupMemberRepository, documentEffectivePermissionRepository);
+    }
+
+    @Test
+    void testUnknownGroupIsRejected() {
+        when(userGroupRepository.findByName("nobody")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> groupService.addMember(ADMIN, "nobody", "user1"));
+    }
+
+    private Document document(Long id, int ownerId) {
+        Document document = new Document("Doc " + id, "pdf", ownerId);
+        document.setId(id);
+        return document;
+    }
+
+    private List<DocumentEffectivePermissionId> ids(Iterable<? extends DocumentEffectivePermission> entries) {
+        List<DocumentEffectivePermissionId> ids = new ArrayList<>();
+        entries.forEach(entry -> ids.add(entry.getId()));
+        ids.sort(Comparator.comparing(DocumentEffectivePermissionId::getDocumentId)
+                .thenComparing(DocumentEffectivePermissionId::getPermission));
+        return ids;
+    }
+}
@@ -0,0 +1,98 @@
+package com.documentAccessControl.storage;
+
+import com.documentAccessControl.entity.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileSystemContentStoreTest {
+    @TempDir
+    Path root;
+
+    private FileSystemContentStore contentStore;
+
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        contentStore = new FileSystemContentStore(root.toString());
+        document = new Document("Test Doc", "pdf", 1);
+        document.setId(1001L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testWriteAndRead() {
+        contentStore.write(document, "Document content here...");
+
+        assertEquals("Document content here...", contentStore.read(1001L));
+        assertNull(contentStore.read(2L));
+
+        Map<Long, String> contents = contentStore.readAll(Arrays.asList(1001L, 2L));
+        assertEquals(1, contents.size());
+    }
+
+    @Test
+    void testOpenTransfersRequestedRange() throws Exception {
+        contentStore.write(document, "Document content here...");
+
+        StoredContent content = contentStore.open(1001L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        content.transferTo(9, 7, Channels.newChannel(out));
+
+        assertEquals(24, content.length());
+        assertEquals("content", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testDelete() {
+        contentStore.write(document, "Document content here...");
+
+        contentStore.delete(1001L);
+
+        assertNull(contentStore.open(1001L));
+    }
+
+    @Test
+    void testWriteInRolledBackTransactionIsRemoved() {
+        TransactionSynchronizationManager.initSynchronization();
+        contentStore.write(document, "Document content here...");
+        assertEquals("Document content here...", contentStore.read(1001L));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertNull(contentStore.read(1001L));
+    }
+
+    @Test
+    void testDeleteInTransactionWaitsForCommit() {
+        contentStore.write(document, "Document content here...");
+        TransactionSynchronizationManager.initSynchronization();
+        contentStore.delete(1001L);
+        assertEquals("Document content here...", contentStore.read(1001L));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertNull(contentStore.read(1001L));
+    }
+}
@@ -1,16 +1,109 @@
+CREATE TABLE users (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
+
 CREATE TABLE documents (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
-    content LONGTEXT NOT NULL,
     file_type VARCHAR(50),
-    created_by VARCHAR(255),
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    owner_id INT NOT NULL,
+    folder_id BIGINT,
+    revision BIGINT DEFAULT 0 NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_documents_folder (folder_id, id)
 );
 
 CREATE TABLE document_permission (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     document_id BIGINT NOT NULL,
-    username VARCHAR(255) NOT NULL,
-    permission VARCHAR(50) NOT NULL,
+    user_id INT NOT NULL,
+    permission_mask INT NOT NULL,
+    CONSTRAINT uk_document_permission_user UNIQUE (document_id, user_id),
+    FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE
+);
+
+CREATE TABLE document_content (
+    document_id BIGINT PRIMARY KEY,
+    content LONGTEXT,
+    FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE
+);
+
+CREATE TABLE document_effective_permission (
+    user_id INT NOT NULL,
+    permission VARCHAR(10) NOT NULL,
+    document_id BIGINT NOT NULL,
+    PRIMARY KEY (document_id, user_id, permission),
+    INDEX idx_effective_permission_lookup (user_id, permission, document_id),
     FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE
 );
+
+CREATE TABLE user_groups (
+    id INT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_user_groups_name UNIQUE (name)
+);
+
+CREATE TABLE group_members (
+    group_id INT NOT NULL,
+    user_id INT NOT NULL,
+    PRIMARY KEY (group_id, user_id),
+    INDEX idx_group_members_user (user_id, group_id)
+);
+
+CREATE TABLE document_group_permission (
+    id BIGINT PRIMARY KEY,
+    document_id BIGINT NOT NULL,
+    group_id INT NOT NULL,
+    permission_mask INT NOT NULL,
+    CONSTRAINT uk_document_group_permission_group UNIQUE (document_id, group_id),
+    INDEX idx_document_group_permission_group (group_id, document_id),
+    FOREIGN KEY (document_id) REFERENCES documents(id) ON DELETE CASCADE
+);
+
+CREATE TABLE folders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    parent_id BIGINT
+);
+
+CREATE TABLE folder_closure (
+    ancestor_id BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    depth INT NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id),
+    INDEX idx_folder_closure_descendant (descendant_id, ancestor_id)
+);
+
+CREATE TABLE folder_permission (
+    user_id INT NOT NULL,
+    permission VARCHAR(10) NOT NULL,
+    folder_id BIGINT NOT NULL,
+    PRIMARY KEY (folder_id, user_id, permission),
+    INDEX idx_folder_permission_lookup (user_id, permission, folder_id)
+);
+
+CREATE TABLE acl_change_log (
+    version BIGINT AUTO_INCREMENT PRIMARY KEY,
+    document_id BIGINT NOT NULL,
+    change_type VARCHAR(10) NOT NULL,
+    user_id INT,
+    permission VARCHAR(10),
+    created_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE TABLE document_seq (
+    next_val BIGINT
+);
+INSERT INTO document_seq VALUES (1);
+
+CREATE TABLE document_permission_seq (
+    next_val BIGINT
+);
+INSERT INTO document_permission_seq VALUES (1);
+
+CREATE TABLE document_group_permission_seq (
+    next_val BIGINT
+);
+INSERT INTO document_group_permission_seq VALUES (1);